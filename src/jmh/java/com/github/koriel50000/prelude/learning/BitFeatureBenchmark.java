@@ -0,0 +1,66 @@
+package com.github.koriel50000.prelude.learning;
+
+import com.github.koriel50000.prelude.reversi.PositionCorpus;
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitFeatureBenchmark {
+
+    private static final int SIZE = 128;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private BitFeature[] features;
+    private long[] players;
+    private long[] opponents;
+    private long[] flipped;
+    private long[] coords;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        features = new BitFeature[SIZE];
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        flipped = new long[SIZE];
+        coords = new long[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            int sample = samples[i];
+            // 局面に至るまでの着手で特徴量の状態を再現する
+            BitFeature feature = new BitFeature();
+            feature.clear();
+            for (int j = positions.gameStart(sample); j < sample; j++) {
+                long coord = positions.coord(j);
+                feature.setState(positions.player(j), positions.opponent(j),
+                        positions.flipped(j), coord, Bits.indexOf(coord));
+            }
+            features[i] = feature;
+            players[i] = positions.player(sample);
+            opponents[i] = positions.opponent(sample);
+            flipped[i] = positions.flipped(sample);
+            coords[i] = positions.coord(sample);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public float getStateBuffer() {
+        float result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            float[] buffer = features[i].getStateBuffer(players[i], opponents[i],
+                    flipped[i], coords[i], Bits.indexOf(coords[i]));
+            result += buffer[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.koriel50000.prelude.reversi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchKernelの実装ごとに、局面あたりの着手可能位置・着手の処理量を比較する
+ * <p>
+ * vectorはJDK 16以降で --add-modules jdk.incubator.vector を指定したときだけ有効(なければscalarと同じ)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchKernelBenchmark {
+
+    private static final int SIZE = 4096;
+
+    @Param({BatchKernel.SCALAR, BatchKernel.VECTOR})
+    private String kernel;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private BatchKernel batchKernel;
+    private long[] players;
+    private long[] opponents;
+    private long[] moves;
+    private long[] mobilities;
+    private long[] workPlayers;
+    private long[] workOpponents;
+    private BatchSimulator simulator;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        batchKernel = BatchKernel.of(kernel);
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        moves = new long[SIZE];
+        mobilities = new long[SIZE];
+        workPlayers = new long[SIZE];
+        workOpponents = new long[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            players[i] = positions.player(samples[i]);
+            opponents[i] = positions.opponent(samples[i]);
+            moves[i] = positions.coord(samples[i]);
+        }
+        simulator = new BatchSimulator(SIZE, batchKernel);
+        random = new SplittableRandom(1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] mobility() {
+        batchKernel.mobility(players, opponents, mobilities, SIZE);
+        return mobilities;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] play() {
+        System.arraycopy(players, 0, workPlayers, 0, SIZE);
+        System.arraycopy(opponents, 0, workOpponents, 0, SIZE);
+        batchKernel.play(workPlayers, workOpponents, moves, SIZE);
+        return workPlayers;
+    }
+
+    /**
+     * 初期局面から全対局をランダムに終局まで進める(操作数は対局数)
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int playout() {
+        simulator.clear();
+        int steps = 0;
+        while (simulator.playRandom(random) > 0) {
+            steps++;
+        }
+        return steps;
+    }
+}
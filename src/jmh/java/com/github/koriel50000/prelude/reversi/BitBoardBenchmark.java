@@ -0,0 +1,100 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitBoardBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] players;
+    private long[] opponents;
+    private int[] indices;
+    private MoveList moves;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        indices = new int[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            players[i] = positions.player(samples[i]);
+            opponents[i] = positions.opponent(samples[i]);
+            indices[i] = Bits.indexOf(positions.coord(samples[i]));
+        }
+        moves = new MoveList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long computeFlipped() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BitBoard.computeFlipped(players[i], opponents[i], indices[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long availableMoves() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BitBoard.availableMoves(players[i], opponents[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 着手ごとの反転する石・反転数・着手後の相手の着手可能数をまとめて求める
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long generateMoves() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int size = BitBoard.generateMoves(players[i], opponents[i], moves);
+            for (int j = 0; j < size; j++) {
+                result ^= moves.flipped(j) + moves.flipCount(j) + moves.replyMobility(j);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * generateMovesと同じ情報をavailableMoves・computeFlippedを1つずつ呼び出して求める
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long generateMovesNaive() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            long player = players[i];
+            long opponent = opponents[i];
+            long coords = BitBoard.availableMoves(player, opponent);
+            while (coords != 0) {
+                long coord = Bits.getRightmostBit(coords);
+                long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+                int flipCount = Bits.populationCount(flipped);
+                int replyMobility = Bits.populationCount(
+                        BitBoard.availableMoves(opponent ^ flipped, player | coord | flipped));
+                result ^= flipped + flipCount + replyMobility;
+                coords ^= coord;
+            }
+        }
+        return result;
+    }
+}
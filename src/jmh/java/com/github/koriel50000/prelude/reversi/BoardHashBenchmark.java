@@ -0,0 +1,54 @@
+package com.github.koriel50000.prelude.reversi;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardHashBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] players;
+    private long[] opponents;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            players[i] = positions.player(samples[i]);
+            opponents[i] = positions.opponent(samples[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long hash() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BoardHash.hash(players[i], opponents[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long canonicalHash() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BoardHash.canonicalHash(players[i], opponents[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlipEngineの実装ごとのBitBoard.computeFlippedの速度を比較する
+ * <p>
+ * 実装は起動時に決まるため、実装ごとにJVMを分けて計測する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FlipEngineBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] players;
+    private long[] opponents;
+    private int[] indices;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        indices = new int[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            players[i] = positions.player(samples[i]);
+            opponents[i] = positions.opponent(samples[i]);
+            indices[i] = Bits.indexOf(positions.coord(samples[i]));
+        }
+    }
+
+    private long computeFlipped() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BitBoard.computeFlipped(players[i], opponents[i], indices[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = "-Dprelude.flip=" + FlipEngine.CARRY)
+    public long carry() {
+        return computeFlipped();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = "-Dprelude.flip=" + FlipEngine.LINE_TABLE)
+    public long lineTable() {
+        return computeFlipped();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = "-Dprelude.flip=" + FlipEngine.KOGGE_STONE)
+    public long koggeStone() {
+        return computeFlipped();
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 着手後の両者の着手可能な位置を、差分の更新とavailableMovesでの計算し直しで比較する
+ * <p>
+ * 閾値(空白の数)0は常に計算し直し、64は常に差分の更新になる。終盤だけの局面はmaxEmptiesで絞り込む。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MobilityTrackerBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    @Param({"0", "4", "8", "16", "64"})
+    private int threshold;
+
+    @Param({"60", "12"})
+    private int maxEmpties;
+
+    private long[] players;
+    private long[] opponents;
+    private long[] changes;
+    private long[] playerMobilities;
+    private long[] opponentMobilities;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        changes = new long[SIZE];
+        playerMobilities = new long[SIZE];
+        opponentMobilities = new long[SIZE];
+        int[] samples = positions.sample(positions.size());
+        int n = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int sample;
+            do {
+                sample = samples[n++ % samples.length];
+            } while (Bits.populationCount(~(positions.player(sample) | positions.opponent(sample))) > maxEmpties);
+            long player = positions.player(sample);
+            long opponent = positions.opponent(sample);
+            long coord = positions.coord(sample);
+            long flipped = positions.flipped(sample);
+            // 着手後の局面と、着手前の着手可能な位置
+            players[i] = opponent ^ flipped;
+            opponents[i] = player | coord | flipped;
+            changes[i] = coord | flipped;
+            playerMobilities[i] = BitBoard.availableMoves(opponent, player);
+            opponentMobilities[i] = BitBoard.availableMoves(player, opponent);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long availableMoves() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= BitBoard.availableMoves(players[i], opponents[i]);
+            result ^= BitBoard.availableMoves(opponents[i], players[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long update() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= MobilityTracker.update(players[i], opponents[i], playerMobilities[i], changes[i], threshold);
+            result ^= MobilityTracker.update(opponents[i], players[i], opponentMobilities[i], changes[i], threshold);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 局面集の局面から終局までのプレイアウトの処理量(1コアあたりの1秒のプレイアウト数)を比較する
+ * <p>
+ * boxed: 着手をList&lt;Long&gt;に詰めてjava.util.Randomで選ぶ(以前のRandomOperatorの方法)
+ * kernel: Playout(selectBitとxorshift64*でオブジェクトを作らない)
+ * <p>
+ * 状態はスレッドごとに持つので、-t で複数スレッドにしたときの値もスレッドあたり(1コアあたり)になる
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] players;
+    private long[] opponents;
+    private Playout playout;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            players[i] = positions.player(samples[i]);
+            opponents[i] = positions.opponent(samples[i]);
+        }
+        playout = new Playout(1);
+        random = new Random(1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int kernel() {
+        int score = 0;
+        for (int i = 0; i < SIZE; i++) {
+            score += playout.play(players[i], opponents[i]);
+        }
+        return score;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int boxed() {
+        int score = 0;
+        for (int i = 0; i < SIZE; i++) {
+            score += boxedPlay(players[i], opponents[i]);
+        }
+        return score;
+    }
+
+    private int boxedPlay(long player, long opponent) {
+        int sign = 1;
+        boolean passed = false;
+        while (true) {
+            long coords = BitBoard.availableMoves(player, opponent);
+            if (coords == 0) {
+                if (passed) {
+                    break;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                List<Long> moveList = new ArrayList<>();
+                while (coords != 0) {
+                    long coord = Bits.getRightmostBit(coords);
+                    moveList.add(coord);
+                    coords ^= coord;
+                }
+                long coord = moveList.get(random.nextInt(moveList.size()));
+                long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+                player |= coord | flipped;
+                opponent ^= flipped;
+            }
+            long swap = player;
+            player = opponent;
+            opponent = swap;
+            sign = -sign;
+        }
+        return sign * (Bits.populationCount(player) - Bits.populationCount(opponent));
+    }
+}
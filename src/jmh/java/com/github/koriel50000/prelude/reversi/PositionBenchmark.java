@@ -0,0 +1,156 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 固定深さの全探索で、BitBoardの状態を書き換える方法とPosition・MoveStackを比較する
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionBenchmark {
+
+    private static final int SIZE = 64;
+    private static final int DEPTH = 3;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] blacks;
+    private long[] whites;
+    private BitBoard bitBoard;
+    private Position[] positions;
+    private MoveStack stack;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus corpus_ = PositionCorpus.of(corpus);
+        blacks = new long[SIZE];
+        whites = new long[SIZE];
+        positions = new Position[SIZE];
+        int[] samples = corpus_.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            // 手番は黒とみなす
+            blacks[i] = corpus_.player(samples[i]);
+            whites[i] = corpus_.opponent(samples[i]);
+            positions[i] = new Position(blacks[i], whites[i]);
+        }
+        bitBoard = new BitBoard();
+        stack = new MoveStack();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long bitBoard() {
+        long nodes = 0;
+        for (int i = 0; i < SIZE; i++) {
+            bitBoard.clear();
+            bitBoard.blackBoard = blacks[i];
+            bitBoard.whiteBoard = whites[i];
+            bitBoard.depth = Bits.populationCount(~(blacks[i] | whites[i]));
+            nodes += walk(bitBoard, DEPTH);
+        }
+        return nodes;
+    }
+
+    private long walk(BitBoard board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        boolean blackTurn = board.currentColor == BitBoard.BLACK;
+        long player = blackTurn ? board.blackBoard : board.whiteBoard;
+        long opponent = blackTurn ? board.whiteBoard : board.blackBoard;
+        long coords = BitBoard.availableMoves(player, opponent);
+        if (coords == 0) {
+            board.nextTurn(true);
+            long nodes = walk(board, depth - 1);
+            board.nextTurn(false);
+            return nodes;
+        }
+
+        long blackBoard = board.blackBoard;
+        long whiteBoard = board.whiteBoard;
+        int color = board.currentColor;
+        int empties = board.depth;
+        long nodes = 0;
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            board.makeMove(flipped, coord);
+            board.nextTurn(false);
+            nodes += walk(board, depth - 1);
+            board.blackBoard = blackBoard;
+            board.whiteBoard = whiteBoard;
+            board.currentColor = color;
+            board.depth = empties;
+            coords ^= coord;
+        }
+        return nodes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long position() {
+        long nodes = 0;
+        for (int i = 0; i < SIZE; i++) {
+            nodes += walk(positions[i], DEPTH);
+        }
+        return nodes;
+    }
+
+    private long walk(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long coords = position.mobility();
+        if (coords == 0) {
+            return walk(position.pass(), depth - 1);
+        }
+        long nodes = 0;
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);
+            nodes += walk(position.play(Bits.indexOf(coord)), depth - 1);
+            coords ^= coord;
+        }
+        return nodes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long moveStack() {
+        long nodes = 0;
+        for (int i = 0; i < SIZE; i++) {
+            stack.set(blacks[i], whites[i]);
+            nodes += walk(stack, DEPTH);
+        }
+        return nodes;
+    }
+
+    private long walk(MoveStack stack, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long coords = stack.mobility();
+        if (coords == 0) {
+            stack.pass();
+            long nodes = walk(stack, depth - 1);
+            stack.undo();
+            return nodes;
+        }
+        long nodes = 0;
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);
+            stack.play(Bits.indexOf(coord));
+            nodes += walk(stack, depth - 1);
+            stack.undo();
+            coords ^= coord;
+        }
+        return nodes;
+    }
+}
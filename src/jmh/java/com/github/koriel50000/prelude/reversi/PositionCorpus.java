@@ -0,0 +1,186 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
+
+/**
+ * ベンチマーク用の局面集
+ * <p>
+ * random: ランダム対戦の局面
+ * prelude: AutoPlayMainでCNN(PreludeOperator)が対戦した棋譜の局面
+ */
+public final class PositionCorpus {
+
+    public static final String RANDOM = "random";
+    public static final String PRELUDE = "prelude";
+
+    private static final long RANDOM_SEED = 0x5eedL;
+    private static final int RANDOM_GAMES = 100;
+    private static final String PRELUDE_RESOURCE = "/corpus/prelude.txt";
+
+    private final BitBoard bitBoard = new BitBoard();
+
+    private final List<long[]> entries = new ArrayList<>(); // {player, opponent, coord, flipped}
+    private final List<Integer> gameStarts = new ArrayList<>();
+
+    private PositionCorpus() {
+    }
+
+    public static PositionCorpus of(String name) {
+        switch (name) {
+            case RANDOM:
+                return random(RANDOM_SEED, RANDOM_GAMES);
+            case PRELUDE:
+                return load(PRELUDE_RESOURCE);
+            default:
+                throw new IllegalArgumentException("no match: " + name);
+        }
+    }
+
+    /**
+     * ランダム対戦で局面を生成する
+     */
+    public static PositionCorpus random(long seed, int games) {
+        PositionCorpus corpus = new PositionCorpus();
+        Random random = new Random(seed);
+        for (int i = 0; i < games; i++) {
+            corpus.playRandom(random);
+        }
+        return corpus;
+    }
+
+    /**
+     * 棋譜(1行1ゲーム、例: F5D6C3...)から局面を読み込む
+     */
+    public static PositionCorpus load(String resource) {
+        PositionCorpus corpus = new PositionCorpus();
+        try (InputStream in = PositionCorpus.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("not exists: " + resource);
+            }
+            for (String line : IOUtils.readLines(in, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    corpus.replay(line.trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        return corpus;
+    }
+
+    private void playRandom(Random random) {
+        gameStarts.add(entries.size());
+        bitBoard.clear();
+        while (true) {
+            boolean passed = false;
+            long player = currentPlayer();
+            long opponent = currentOpponent();
+            long coords = BitBoard.availableMoves(player, opponent);
+            if (coords == 0) {
+                passed = true;
+            } else {
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int i = 0; i < n; i++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                play(player, opponent, Bits.getRightmostBit(coords));
+            }
+            if (bitBoard.hasCompleted(passed)) {
+                break;
+            }
+            bitBoard.nextTurn(passed);
+        }
+    }
+
+    private void replay(String moves) {
+        gameStarts.add(entries.size());
+        bitBoard.clear();
+        for (int i = 0; i + 1 < moves.length(); i += 2) {
+            long coord = Bits.coordAt(Coord.valueOf(moves.substring(i, i + 2).toUpperCase()).index());
+            if (BitBoard.availableMoves(currentPlayer(), currentOpponent()) == 0) {
+                bitBoard.nextTurn(true); // 棋譜にはパスが記録されない
+            }
+            if ((BitBoard.availableMoves(currentPlayer(), currentOpponent()) & coord) == 0) {
+                throw new IllegalArgumentException("illegal move: " + moves.substring(i, i + 2));
+            }
+            play(currentPlayer(), currentOpponent(), coord);
+            bitBoard.nextTurn(false);
+        }
+    }
+
+    private void play(long player, long opponent, long coord) {
+        long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+        entries.add(new long[]{player, opponent, coord, flipped});
+        bitBoard.makeMove(flipped, coord);
+    }
+
+    private long currentPlayer() {
+        return bitBoard.currentColor == BitBoard.BLACK ? bitBoard.blackBoard : bitBoard.whiteBoard;
+    }
+
+    private long currentOpponent() {
+        return bitBoard.currentColor == BitBoard.BLACK ? bitBoard.whiteBoard : bitBoard.blackBoard;
+    }
+
+    /**
+     * 局面数(着手数)を返す
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long player(int i) {
+        return entries.get(i)[0];
+    }
+
+    public long opponent(int i) {
+        return entries.get(i)[1];
+    }
+
+    /**
+     * 局面で実際に打たれた着手を返す
+     */
+    public long coord(int i) {
+        return entries.get(i)[2];
+    }
+
+    public long flipped(int i) {
+        return entries.get(i)[3];
+    }
+
+    /**
+     * 局面を含むゲームの最初の局面の番号を返す
+     */
+    public int gameStart(int i) {
+        int start = 0;
+        for (int gameStart : gameStarts) {
+            if (gameStart > i) {
+                break;
+            }
+            start = gameStart;
+        }
+        return start;
+    }
+
+    /**
+     * 局面を等間隔に抜き出した番号を返す
+     */
+    public int[] sample(int count) {
+        int[] samples = new int[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = (int) ((long) i * size() / count);
+        }
+        return samples;
+    }
+}
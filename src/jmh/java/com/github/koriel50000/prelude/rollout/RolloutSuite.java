@@ -0,0 +1,183 @@
+package com.github.koriel50000.prelude.rollout;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.PositionCorpus;
+import com.github.koriel50000.prelude.util.Bits;
+import com.github.koriel50000.prelude.winloss.EndgameSearch;
+import com.github.koriel50000.prelude.winloss.EndgameSolver;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 局面集の局面を探索の方法(TREE・ROOT)とスレッド数を変えて同じ時間だけUCTで探索し、
+ * 1秒あたりのプレイアウト数と1スレッドとの比、終盤の局面で勝敗を変えない着手を選んだ数を出力する
+ * <p>
+ * 引数: [結果のJSONファイル]。スレッド数は1から -Dprelude.mcts.threads (既定はプロセッサ数)まで2倍ずつ増やし、
+ * 1局面あたりの探索時間は -Dprelude.mcts.suite.time (ms) で指定する。
+ * 終盤の局面は空白がENDGAME_EMPTIES以下で、着手によって勝敗が変わる局面だけを使う。
+ * スレッド数がプロセッサ数を超えた結果はスレッドが時間を分け合うだけなので、スケーリングの確認には使えない
+ * (oversubscribedと表示する)。8スレッドまで確かめるには8コア以上のマシンで
+ * gradle rolloutSuite -Pprelude.mcts.threads=8 を実行する
+ */
+public class RolloutSuite {
+
+    private static final int THREADS = Integer.getInteger("prelude.mcts.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final long TIME = Long.getLong("prelude.mcts.suite.time", 500);
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final int POSITIONS = 20;
+    private static final int ENDGAME_EMPTIES = 14;
+
+    private static class Result {
+
+        UctSearch.Mode mode;
+        int threads;
+        long playouts;
+        long time; // ns
+        int correct;
+
+        long playoutsPerSecond() {
+            return playouts * 1_000_000_000L / Math.max(time, 1);
+        }
+    }
+
+    /**
+     * 終盤の局面と、着手ごとの勝敗(勝ち1・引き分け0・負け-1)
+     */
+    private static class Endgame {
+
+        long player;
+        long opponent;
+        int[] outcomes = new int[64];
+        int best = -1;
+    }
+
+    private static List<Endgame> endgames(PositionCorpus positions) {
+        EndgameSolver solver = new EndgameSolver();
+        List<Endgame> endgames = new ArrayList<>();
+        for (int i = 0; i < positions.size() && endgames.size() < POSITIONS; i++) {
+            long player = positions.player(i);
+            long opponent = positions.opponent(i);
+            long mobility = BitBoard.availableMoves(player, opponent);
+            // 同じ対局から続けて選ばないように、空白がちょうどENDGAME_EMPTIESの局面だけを使う
+            if (Bits.populationCount(~(player | opponent)) != ENDGAME_EMPTIES || mobility == 0) {
+                continue;
+            }
+            Endgame endgame = new Endgame();
+            endgame.player = player;
+            endgame.opponent = opponent;
+            int worst = 1;
+            for (long coords = mobility; coords != 0; coords &= coords - 1) {
+                long coord = Bits.getRightmostBit(coords);
+                long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+                int outcome = -solver.solve(opponent ^ flipped, player | coord | flipped, EndgameSearch.Mode.WIN_LOSS);
+                endgame.outcomes[Bits.indexOf(coord)] = outcome;
+                endgame.best = Math.max(endgame.best, outcome);
+                worst = Math.min(worst, outcome);
+            }
+            if (worst < endgame.best) {
+                endgames.add(endgame);
+            }
+        }
+        return endgames;
+    }
+
+    private static Result run(UctSearch.Mode mode, int threads, PositionCorpus positions, int[] samples,
+                              List<Endgame> endgames) {
+        Result result = new Result();
+        result.mode = mode;
+        result.threads = threads;
+        UctSearch search = new UctSearch(1, threads, mode);
+        try {
+            for (int i : samples) {
+                long player = positions.player(i);
+                long opponent = positions.opponent(i);
+                long start = System.nanoTime();
+                search(search, player, opponent, start);
+                result.time += System.nanoTime() - start;
+                result.playouts += search.playouts();
+            }
+            for (Endgame endgame : endgames) {
+                long coord = search(search, endgame.player, endgame.opponent, System.nanoTime());
+                if (endgame.outcomes[Bits.indexOf(coord)] == endgame.best) {
+                    result.correct++;
+                }
+            }
+        } finally {
+            search.shutdown();
+        }
+        return result;
+    }
+
+    private static long search(UctSearch search, long player, long opponent, long start) {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(TIME);
+        return search.search(player, opponent, BitBoard.availableMoves(player, opponent), deadline, coord -> {
+        });
+    }
+
+    private static void writeJson(Path path, List<Result> results, int endgames) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("{");
+            out.println(String.format(Locale.ROOT, "  \"timeMs\": %d,", TIME));
+            out.println(String.format(Locale.ROOT, "  \"availableProcessors\": %d,", PROCESSORS));
+            out.println(String.format(Locale.ROOT, "  \"positions\": %d,", POSITIONS));
+            out.println(String.format(Locale.ROOT, "  \"endgames\": %d,", endgames));
+            out.println("  \"results\": [");
+            long base = results.get(0).playoutsPerSecond();
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.println(String.format(Locale.ROOT, "    {\"mode\": \"%s\", \"threads\": %d, \"playouts\": %d, "
+                                + "\"playoutsPerSecond\": %d, \"playoutsPerSecondPerThread\": %d, \"speedup\": %.2f, "
+                                + "\"correct\": %d, \"oversubscribed\": %b}%s",
+                        result.mode, result.threads, result.playouts, result.playoutsPerSecond(),
+                        result.playoutsPerSecond() / result.threads, (double) result.playoutsPerSecond() / base,
+                        result.correct, result.threads > PROCESSORS, (i + 1 < results.size()) ? "," : ""));
+            }
+            out.println("  ]");
+            out.println("}");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        PositionCorpus positions = PositionCorpus.of(PositionCorpus.PRELUDE);
+        List<Integer> candidates = new ArrayList<>();
+        for (int i : positions.sample(POSITIONS * 2)) {
+            if (BitBoard.availableMoves(positions.player(i), positions.opponent(i)) != 0) {
+                candidates.add(i);
+            }
+        }
+        int[] samples = candidates.stream().limit(POSITIONS).mapToInt(Integer::intValue).toArray();
+        List<Endgame> endgames = endgames(positions);
+
+        System.out.println(String.format("positions:%d endgames:%d time:%dms processors:%d",
+                samples.length, endgames.size(), TIME, PROCESSORS));
+        List<Result> results = new ArrayList<>();
+        for (int threads = 1; threads <= THREADS; threads *= 2) {
+            for (UctSearch.Mode mode : UctSearch.Mode.values()) {
+                if (threads == 1 && mode == UctSearch.Mode.ROOT) {
+                    continue; // 1スレッドではTREEと同じ
+                }
+                Result result = run(mode, threads, positions, samples, endgames);
+                results.add(result);
+                System.out.println(String.format("mode:%s threads:%d playouts/s:%d per thread:%d speedup:%.2f correct:%d/%d%s",
+                        mode, threads, result.playoutsPerSecond(), result.playoutsPerSecond() / threads,
+                        (double) result.playoutsPerSecond() / results.get(0).playoutsPerSecond(),
+                        result.correct, endgames.size(), (threads > PROCESSORS) ? " oversubscribed" : ""));
+            }
+        }
+
+        if (args.length > 0) {
+            writeJson(Paths.get(args[0]), results, endgames.size());
+        }
+    }
+}
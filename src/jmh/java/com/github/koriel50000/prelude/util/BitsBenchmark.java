@@ -0,0 +1,95 @@
+package com.github.koriel50000.prelude.util;
+
+import com.github.koriel50000.prelude.reversi.PositionCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitsBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({PositionCorpus.RANDOM, PositionCorpus.PRELUDE})
+    private String corpus;
+
+    private long[] boards;
+    private long[] coords;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(corpus);
+        boards = new long[SIZE];
+        coords = new long[SIZE];
+        int[] samples = positions.sample(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            boards[i] = positions.player(samples[i]);
+            coords[i] = positions.coord(samples[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int populationCount() {
+        int result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result += Bits.populationCount(boards[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int countLeadingZeros() {
+        int result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result += Bits.countLeadingZeros(boards[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int indexOf() {
+        int result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result += Bits.indexOf(coords[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long transposed() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= Bits.transposed(boards[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long flipUpDn() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= Bits.flipUpDn(boards[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long flipLtRt() {
+        long result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result ^= Bits.flipLtRt(boards[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.PositionCorpus;
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 空白の少ない局面の完全読みを、空白4つ以下の専用の処理と汎用の処理で比較する
+ * <p>
+ * 処理は起動時に決まるため、処理ごとにJVMを分けて計測する。nodesは1秒あたりのノード数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EndgameKernelBenchmark {
+
+    private static final int SIZE = 256;
+
+    @Param({"4", "6", "8"})
+    private int empties;
+
+    private long[] players;
+    private long[] opponents;
+    private EndgameSolver solver;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(PositionCorpus.RANDOM);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        int n = 0;
+        for (int i = 0; n < SIZE; i = (i + 1) % positions.size()) {
+            long player = positions.player(i);
+            long opponent = positions.opponent(i);
+            if (Bits.populationCount(~(player | opponent)) == empties) {
+                players[n] = player;
+                opponents[n] = opponent;
+                n++;
+            }
+        }
+        solver = new EndgameSolver();
+    }
+
+    private int solve(Counters counters) {
+        long nodes = solver.nodes();
+        int result = 0;
+        for (int i = 0; i < SIZE; i++) {
+            result += solver.solve(players[i], opponents[i], -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+        }
+        counters.nodes += solver.nodes() - nodes;
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = "-Dprelude.winloss.kernels=true")
+    public int kernels(Counters counters) {
+        return solve(counters);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    @Fork(value = 1, jvmArgsAppend = "-Dprelude.winloss.kernels=false")
+    public int generic(Counters counters) {
+        return solve(counters);
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.PositionCorpus;
+import com.github.koriel50000.prelude.util.Bits;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 棋譜の空白EMPTIESの局面を完全読みする時間を、逐次の探索とスレッド数ごとの並列の探索で比較する
+ * <p>
+ * 置換表は毎回空にしてから探索する。threads=0は逐次の探索(EndgameSolver)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class EndgameSolverBenchmark {
+
+    private static final int SIZE = 8;
+    private static final int EMPTIES = 16;
+
+    @Param({"0", "1", "2", "4", "8", "16"})
+    private int threads;
+
+    private long[] players;
+    private long[] opponents;
+    private TranspositionTable table;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        PositionCorpus positions = PositionCorpus.of(PositionCorpus.PRELUDE);
+        players = new long[SIZE];
+        opponents = new long[SIZE];
+        int n = 0;
+        for (int i = 0; i < positions.size() && n < SIZE; i++) {
+            long player = positions.player(i);
+            long opponent = positions.opponent(i);
+            if (Bits.populationCount(~(player | opponent)) == EMPTIES) {
+                players[n] = player;
+                opponents[n] = opponent;
+                n++;
+            }
+        }
+        table = new TranspositionTable(16);
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int solve() {
+        table.clear();
+        int result = 0;
+        if (pool == null) {
+            EndgameSolver solver = new EndgameSolver(table);
+            for (int i = 0; i < SIZE; i++) {
+                result += solver.solve(players[i], opponents[i], -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            }
+        } else {
+            ParallelEndgameSolver solver = new ParallelEndgameSolver(pool, table);
+            for (int i = 0; i < SIZE; i++) {
+                result += solver.solve(players[i], opponents[i], -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            }
+        }
+        return result;
+    }
+}
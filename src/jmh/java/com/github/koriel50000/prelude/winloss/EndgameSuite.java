@@ -0,0 +1,181 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 石差が分かっている局面集(FFOのテスト局面の形式)をWinLossExplorerで完全読みして、
+ * 局面ごとの時間・ノード数・1秒あたりのノード数・置換表の結果を使えた割合と、石差が正しいかを出力する
+ * <p>
+ * 引数: 局面集のファイル [結果のJSONファイル]。探索の方法とスレッド数は -Dprelude.winloss.* で指定する
+ */
+public class EndgameSuite {
+
+    private static final String MODE = System.getProperty("prelude.winloss.mode", "MTDF");
+    private static final int THREADS = Integer.getInteger("prelude.winloss.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    private static class Result {
+
+        int number;
+        int empties;
+        int expected;
+        int score;
+        boolean correct;
+        long move;
+        long time; // ns
+        long nodes;
+        long tableProbes;
+        long tableHits;
+    }
+
+    /**
+     * 局面集を読み込む(1行1局面、「盤面64文字 石差」、#以降は注釈)
+     * <p>
+     * 盤面はA1〜H8の順で X:手番側 O:相手 -:空白
+     */
+    private static List<String[]> load(Path path) throws IOException {
+        List<String[]> positions = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            if (!line.trim().isEmpty()) {
+                positions.add(line.trim().split("\\s+"));
+            }
+        }
+        return positions;
+    }
+
+    private static long parse(String board, char disc) {
+        if (board.length() != 64) {
+            throw new IllegalArgumentException("illegal board: " + board);
+        }
+        long bits = 0;
+        for (int i = 0; i < 64; i++) {
+            if (board.charAt(i) == disc) {
+                bits |= Bits.coordAt(i);
+            }
+        }
+        return bits;
+    }
+
+    private static double rate(long numerator, long denominator) {
+        return (denominator > 0) ? (double) numerator / denominator : 0.0;
+    }
+
+    private static long nps(long nodes, long time) {
+        return nodes * 1_000_000_000L / Math.max(time, 1);
+    }
+
+    private static Result solve(WinLossExplorer explorer, int number, String[] position) {
+        long player = parse(position[0], 'X');
+        long opponent = parse(position[0], 'O');
+
+        Result result = new Result();
+        result.number = number;
+        result.empties = Bits.populationCount(~(player | opponent));
+        result.expected = Integer.parseInt(position[1]);
+
+        long nodes = explorer.nodes();
+        long tableProbes = explorer.tableProbes();
+        long tableHits = explorer.tableHits();
+        SearchControl control = SearchControl.unlimited();
+        long start = System.nanoTime();
+        result.move = explorer.explore(player, opponent, BitBoard.availableMoves(player, opponent), control);
+        result.time = System.nanoTime() - start;
+        result.nodes = explorer.nodes() - nodes;
+        result.tableProbes = explorer.tableProbes() - tableProbes;
+        result.tableHits = explorer.tableHits() - tableHits;
+
+        // WIN_LOSSは勝敗だけを比べる
+        result.score = control.bestValue();
+        if (MODE.equals(EndgameSearch.Mode.WIN_LOSS.name())) {
+            result.correct = result.score == Integer.signum(result.expected);
+        } else {
+            result.correct = result.score == result.expected;
+        }
+        return result;
+    }
+
+    private static void writeJson(Path path, List<Result> results) throws IOException {
+        long time = 0;
+        long nodes = 0;
+        long tableProbes = 0;
+        long tableHits = 0;
+        int correct = 0;
+        for (Result result : results) {
+            time += result.time;
+            nodes += result.nodes;
+            tableProbes += result.tableProbes;
+            tableHits += result.tableHits;
+            correct += result.correct ? 1 : 0;
+        }
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println("{");
+            out.println(String.format(Locale.ROOT, "  \"mode\": \"%s\",", MODE));
+            out.println(String.format(Locale.ROOT, "  \"threads\": %d,", THREADS));
+            out.println(String.format(Locale.ROOT, "  \"positions\": %d,", results.size()));
+            out.println(String.format(Locale.ROOT, "  \"correct\": %d,", correct));
+            out.println(String.format(Locale.ROOT, "  \"timeMs\": %.3f,", time / 1e6));
+            out.println(String.format(Locale.ROOT, "  \"nodes\": %d,", nodes));
+            out.println(String.format(Locale.ROOT, "  \"nodesPerSecond\": %d,", nps(nodes, time)));
+            out.println(String.format(Locale.ROOT, "  \"tableHitRate\": %.4f,", rate(tableHits, tableProbes)));
+            out.println("  \"results\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.println(String.format(Locale.ROOT, "    {\"number\": %d, \"empties\": %d, \"expected\": %d, \"score\": %d, "
+                                + "\"correct\": %b, \"move\": %d, \"timeMs\": %.3f, \"nodes\": %d, "
+                                + "\"nodesPerSecond\": %d, \"tableHitRate\": %.4f}%s",
+                        result.number, result.empties, result.expected, result.score,
+                        result.correct, Bits.indexOf(result.move), result.time / 1e6, result.nodes,
+                        nps(result.nodes, result.time), rate(result.tableHits, result.tableProbes),
+                        (i + 1 < results.size()) ? "," : ""));
+            }
+            out.println("  ]");
+            out.println("}");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: EndgameSuite <positions> [results.json]");
+            System.exit(1);
+        }
+        List<String[]> positions = load(Paths.get(args[0]));
+
+        WinLossExplorer explorer = new WinLossExplorer(new BitBoard());
+        System.out.println(String.format("mode:%s threads:%d positions:%d", MODE, THREADS, positions.size()));
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            Result result = solve(explorer, i + 1, positions.get(i));
+            results.add(result);
+            System.out.println(String.format("#%d empties:%d score:%d expected:%d%s time:%dms nodes:%d nps:%d hit:%.1f%%",
+                    result.number, result.empties, result.score, result.expected, result.correct ? "" : " WRONG",
+                    result.time / 1_000_000, result.nodes, nps(result.nodes, result.time),
+                    rate(result.tableHits, result.tableProbes) * 100));
+        }
+        explorer.destroy();
+
+        if (args.length > 1) {
+            writeJson(Paths.get(args[1]), results);
+        }
+        long wrong = results.stream().filter(result -> !result.correct).count();
+        if (wrong > 0) {
+            throw new IllegalStateException(String.format("%d positions not match", wrong));
+        }
+    }
+}
@@ -11,7 +11,12 @@ import com.github.koriel50000.prelude.reversi.Reversi;
 import com.github.koriel50000.prelude.reversi.Score;
 import com.github.koriel50000.prelude.util.Bits;
 import com.github.koriel50000.prelude.util.LineBuffer;
+import org.apache.commons.io.FileUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
@@ -23,11 +28,14 @@ public class AutoPlayMain {
     private Reversi reversi;
     private PreludeFeature feature;
 
+    private List<String> records;
+
     private AutoPlayMain() {
         bitBoard = new BitBoard();
         bitFeature = new BitFeature();
         reversi = new Reversi();
         feature = new PreludeFeature();
+        records = new ArrayList<>();
     }
 
     private void autoplay() {
@@ -94,6 +102,23 @@ public class AutoPlayMain {
 
         preludeOperator.destroy();
         randomOperator.destroy();
+
+        saveRecords();
+    }
+
+    /**
+     * 棋譜を保存する(-Dprelude.record=ファイル名 を指定した場合のみ)
+     */
+    private void saveRecords() {
+        String fileName = System.getProperty("prelude.record");
+        if (fileName == null) {
+            return;
+        }
+        try {
+            FileUtils.writeLines(new File(fileName), "UTF-8", records, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
     }
 
     /**
@@ -106,6 +131,7 @@ public class AutoPlayMain {
         feature.clear();
 
         LineBuffer buffer = new LineBuffer();
+        StringBuilder record = new StringBuilder();
 
         while (true) {
             boolean passed = false;
@@ -114,20 +140,21 @@ public class AutoPlayMain {
             long opponent = blackTurn ? bitBoard.whiteBoard : bitBoard.blackBoard;
             Operator operator = blackTurn ? blackOperator : whiteOperator;
 
-            long coords = bitBoard.availableMoves(player, opponent);
+            long coords = BitBoard.availableMoves(player, opponent);
             if (coords == 0) {
                 passed = true;
             } else {
                 long coord = operator.evaluate(player, opponent, coords);
 
                 int index = Bits.indexOf(coord);
-                long flipped = bitBoard.computeFlipped(player, opponent, index);
+                long flipped = BitBoard.computeFlipped(player, opponent, index);
                 bitBoard.makeMove(flipped, coord);
                 bitFeature.setState(player, opponent, flipped, coord, index);
 
                 Coord coord_ = Coord.valueOf(coord);
                 List<Coord> flipped_ = reversi.makeMove(coord_);
                 feature.increaseFlipped(coord_, flipped_);
+                record.append(coord_);
             }
 
             // ゲーム終了を判定
@@ -145,6 +172,7 @@ public class AutoPlayMain {
         reversi.printScore(buffer.offset(30));
         buffer.flush();
 
+        records.add(record.toString());
         return bitBoard.getScore();
     }
 
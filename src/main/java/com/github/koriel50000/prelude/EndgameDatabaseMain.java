@@ -0,0 +1,28 @@
+package com.github.koriel50000.prelude;
+
+import com.github.koriel50000.prelude.winloss.EndgameDatabase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 完全読みの結果の追記用のファイルを、整列済みのファイルにまとめる(対局していない間に実行する)
+ * <p>
+ * 引数: ディレクトリ(-Dprelude.winloss.db に指定したもの)
+ */
+public class EndgameDatabaseMain {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: EndgameDatabaseMain <directory>");
+            System.exit(1);
+        }
+        Path directory = Paths.get(args[0]);
+        EndgameDatabase.compact(directory);
+
+        try (EndgameDatabase database = new EndgameDatabase(directory, 0)) {
+            System.out.println(String.format("positions:%d", database.size()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.koriel50000.prelude;
+
+import com.github.koriel50000.prelude.perft.Perft;
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.util.Bits;
+import com.github.koriel50000.prelude.util.LineBuffer;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
+
+/**
+ * 着手生成の末端局面数と速度を計測する
+ * <p>
+ * 引数: [深さ] [棋譜(例: F5D6C3)]
+ */
+public class PerftMain {
+
+    private static final int DEFAULT_DEPTH = 10;
+    private static final int ORACLE_DEPTH = 6; // この深さまではReversiで照合する
+
+    private BitBoard bitBoard;
+
+    private PerftMain() {
+        bitBoard = new BitBoard();
+    }
+
+    /**
+     * 棋譜を再生して局面を設定する
+     */
+    private void setUp(String moves) {
+        bitBoard.clear();
+        for (int i = 0; i + 1 < moves.length(); i += 2) {
+            Coord coord_ = Coord.valueOf(moves.substring(i, i + 2).toUpperCase());
+            long coord = Bits.coordAt(coord_.index());
+
+            long player = currentPlayer();
+            long opponent = currentOpponent();
+            if (BitBoard.availableMoves(player, opponent) == 0) {
+                bitBoard.nextTurn(true); // 棋譜にはパスが記録されない
+                player = currentPlayer();
+                opponent = currentOpponent();
+            }
+            if ((BitBoard.availableMoves(player, opponent) & coord) == 0) {
+                throw new IllegalArgumentException("illegal move: " + coord_);
+            }
+
+            long flipped = BitBoard.computeFlipped(player, opponent, coord_.index());
+            bitBoard.makeMove(flipped, coord);
+            bitBoard.nextTurn(false);
+        }
+    }
+
+    private long currentPlayer() {
+        return bitBoard.currentColor == BitBoard.BLACK ? bitBoard.blackBoard : bitBoard.whiteBoard;
+    }
+
+    private long currentOpponent() {
+        return bitBoard.currentColor == BitBoard.BLACK ? bitBoard.whiteBoard : bitBoard.blackBoard;
+    }
+
+    private void perft(int maxDepth) {
+        long player = currentPlayer();
+        long opponent = currentOpponent();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Perft perft = new Perft(pool);
+
+        LineBuffer buffer = new LineBuffer();
+        bitBoard.printBoard(buffer.offset(0));
+        bitBoard.printStatus(buffer.offset(0));
+        buffer.flush();
+        System.out.println(String.format("threads:%d", parallelism));
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(player, opponent, depth);
+            long elapsed = System.nanoTime() - start;
+
+            String verified = "";
+            if (depth <= ORACLE_DEPTH) {
+                long expected = perft.verify(player, opponent, depth);
+                if (expected != nodes) {
+                    throw new IllegalStateException(String.format(
+                            "perft not match. depth=%d expected=%d actual=%d", depth, expected, nodes));
+                }
+                verified = " verified";
+            }
+
+            long nps = nodes * 1_000_000_000L / Math.max(elapsed, 1);
+            System.out.println(String.format("depth:%d nodes:%d time:%dms nps:%d%s",
+                    depth, nodes, elapsed / 1_000_000, nps, verified));
+        }
+
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        String moves = args.length > 1 ? args[1] : "";
+
+        PerftMain main = new PerftMain();
+        main.setUp(moves);
+        main.perft(depth);
+    }
+}
@@ -73,7 +73,7 @@ public class PlayMain {
             Operator operator = blackTurn ? blackOperator : whiteOperator;
 
             // Assert
-            long coords = bitBoard.availableMoves(player, opponent);
+            long coords = BitBoard.availableMoves(player, opponent);
             long expectedCoords = Coord.toCoords(reversi.availableMoves());
             try {
                 assertEquals(expectedCoords, coords, "availableMoves");
@@ -96,7 +96,7 @@ public class PlayMain {
                 long coord = operator.evaluate(player, opponent, coords);
 
                 int index = Bits.indexOf(coord);
-                long flipped = bitBoard.computeFlipped(player, opponent, index);
+                long flipped = BitBoard.computeFlipped(player, opponent, index);
                 bitBoard.makeMove(flipped, coord);
                 bitFeature.setState(player, opponent, flipped, coord, index);
 
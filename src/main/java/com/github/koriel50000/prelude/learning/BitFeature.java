@@ -1,5 +1,6 @@
 package com.github.koriel50000.prelude.learning;
 
+import com.github.koriel50000.prelude.reversi.Symmetry;
 import com.github.koriel50000.prelude.util.Bits;
 
 import java.util.Arrays;
@@ -22,6 +23,9 @@ public class BitFeature {
     };
 
     private BitState currentState;
+    private long symmetryPlayer;
+    private long symmetryOpponent;
+    private int symmetryMask;
 
     public BitFeature() {
     }
@@ -31,49 +35,72 @@ public class BitFeature {
     }
 
     /**
-     * 対角位置の対称変換が必要か
+     * 現在の局面の奇数領域(空白が奇数の領域)を返す
      */
-    private boolean isSymmetric(int diagonal, long player, long opponent) {
-        // 着手が左上部(0,8)領域となるように盤面を反転する
-        long player_;
-        long opponent_;
-        switch (diagonal) {
-            case 8:
-                // 変換なし
-                player_ = player;
-                opponent_ = opponent;
-                break;
-            case 10:
-                // 左右反転
-                player_ = Bits.flipLtRt(player);
-                opponent_ = Bits.flipLtRt(opponent);
-                break;
-            case 12:
-                // 上下反転
-                player_ = Bits.flipUpDn(player);
-                opponent_ = Bits.flipUpDn(opponent);
-                break;
-            case 14:
-                // 上下左右反転
-                player_ = Bits.flip(player);
-                opponent_ = Bits.flip(opponent);
-                break;
-            default:
-                throw new IllegalArgumentException("no match: " + diagonal);
+    public long oddArea() {
+        return currentState.oddArea;
+    }
+
+    /**
+     * 現在の局面の偶数領域(空白が偶数の領域)を返す
+     */
+    public long evenArea() {
+        return currentState.evenArea;
+    }
+
+    /**
+     * 任意の局面の奇数領域を返す
+     * <p>
+     * 領域は上下左右につながった空白で、enumerateOddEvenで増分に求める領域と同じ。
+     * 空白の少ない局面ではすぐに求まるため、終盤の探索の着手の並べ替え(偶数理論)にも使う
+     */
+    public static long oddArea(long player, long opponent) {
+        long area = ~(player | opponent);
+        long oddArea = 0;
+        while (area != 0) {
+            long part = fillRegion(area, Bits.getRightmostBit(area));
+            if ((Bits.populationCount(part) & 1) != 0) {
+                oddArea |= part;
+            }
+            area ^= part;
         }
+        return oddArea;
+    }
 
-        // 右上三角領域を左上から転置行列と比較して差分を求める
-        long mask = 0x7F3F1F0F07030100L;
-        long tPlayer_ = Bits.transposed(player_);
-        long tOpponent_ = Bits.transposed(opponent_);
+    /**
+     * 任意の局面の偶数領域を返す
+     */
+    public static long evenArea(long player, long opponent) {
+        return ~(player | opponent) & ~oddArea(player, opponent);
+    }
 
-        long pDiff = (player_ & mask) ^ (tPlayer_ & mask);
-        long oDiff = (opponent_ & mask) ^ (tOpponent_ & mask);
-        int pPos = Bits.countLeadingZeros(pDiff);
-        int oPos = Bits.countLeadingZeros(oDiff);
+    /**
+     * 任意の局面の奇数領域の数を返す
+     */
+    public static int oddCount(long player, long opponent) {
+        long area = ~(player | opponent);
+        int oddCount = 0;
+        while (area != 0) {
+            long part = fillRegion(area, Bits.getRightmostBit(area));
+            oddCount += Bits.populationCount(part) & 1;
+            area ^= part;
+        }
+        return oddCount;
+    }
 
-        // 最初の差分が自石のときtrue、それ以外はfalse
-        return pPos <= oPos && (player_ & Bits.coordAt(pPos)) != 0;
+    /**
+     * 位置seedから上下左右につながったarea内の位置を、ビット演算の膨張で塗りつぶして返す
+     */
+    private static long fillRegion(long area, long seed) {
+        long part = seed;
+        while (true) {
+            long next = (part | (part << 8) | (part >>> 8)
+                    | ((part & 0x7f7f7f7f7f7f7f7fL) << 1) | ((part >>> 1) & 0x7f7f7f7f7f7f7f7fL)) & area;
+            if (next == part) {
+                return part;
+            }
+            part = next;
+        }
     }
 
     /**
@@ -81,8 +108,16 @@ public class BitFeature {
      */
     private int checkRegion(long player, long opponent, int index) {
         int region = REGION[index];
-        if (region >= 8 && isSymmetric(region, player, opponent)) {
-            region += 1; // 対角線の領域を補正
+        if (region >= 8) {
+            if (player != symmetryPlayer || opponent != symmetryOpponent) {
+                // 同じ局面の候補手では使い回す
+                symmetryPlayer = player;
+                symmetryOpponent = opponent;
+                symmetryMask = Symmetry.diagonalTransposes(player, opponent);
+            }
+            if ((symmetryMask & (1 << (region & 0x06))) != 0) {
+                region += 1; // 対角線の領域を補正
+            }
         }
         return region;
     }
@@ -303,30 +338,7 @@ public class BitFeature {
         }
 
         private void put(float[] buffer, int channel, long coords) {
-            long coords_;
-            switch (region & 0x06) {
-                case 0:
-                    // 変換なし
-                    coords_ = coords;
-                    break;
-                case 2:
-                    // 左右反転
-                    coords_ = Bits.flipLtRt(coords);
-                    break;
-                case 4:
-                    // 上下反転
-                    coords_ = Bits.flipUpDn(coords);
-                    break;
-                case 6:
-                    // 上下左右反転
-                    coords_ = Bits.flip(coords);
-                    break;
-                default:
-                    throw new IllegalArgumentException("no match: " + region);
-            }
-            if ((region & 0x01) != 0) {
-                coords_ = Bits.transposed(coords_);
-            }
+            long coords_ = Symmetry.apply(region & 0x07, coords);
 
             int offset = ROWS * COLUMNS * channel;
             while (coords_ != 0) {
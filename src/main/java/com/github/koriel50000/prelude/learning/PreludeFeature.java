@@ -1,6 +1,7 @@
 package com.github.koriel50000.prelude.learning;
 
 import com.github.koriel50000.prelude.reversi.Reversi;
+import com.github.koriel50000.prelude.reversi.Symmetry;
 
 import java.util.List;
 
@@ -36,6 +37,10 @@ public class PreludeFeature {
     private int emptyCount;
     private boolean earlyTurn;
     private int[] flippedBoard;
+    private Board symmetryBoard;
+    private int symmetryVersion;
+    private Color symmetryColor;
+    private int symmetryMask;
 
     public PreludeFeature() {
         oddevenArea = new int[COLUMNS * ROWS];
@@ -55,43 +60,23 @@ public class PreludeFeature {
         flippedBoard[Coord.valueOf("E4").index()] = 1;
         flippedBoard[Coord.valueOf("D5").index()] = 1;
         flippedBoard[Coord.valueOf("E5").index()] = 1;
+        symmetryBoard = null;
     }
 
     /**
      * 対角位置の対称変換が必要か
      */
     private boolean isSymmetric(int diagonal, Board board, Color color) {
-        Board board_;
-        switch (diagonal) {
-            case 8:
-                // 変換なし
-                board_ = board;
-                break;
-            case 10:
-                // 左右反転
-                board_ = board.flipLtRt();
-                break;
-            case 12:
-                // 上下反転
-                board_ = board.flipUpDn();
-                break;
-            case 14:
-                // 上下左右反転
-                board_ = board.flip();
-                break;
-            default:
-                throw new IllegalArgumentException("no match: " + diagonal);
-        }
-
-        for (int y = 1; y <= ROWS; y++) {
-            for (int x = y + 1; x <= COLUMNS; x++) {
-                // 転置行列と左上から比較して、初めての違いが自石のときtrue、それ以外はfalse
-                if (board_.get(x, y) != board_.get(y, x)) {
-                    return board_.get(x, y) == color.value();
-                }
-            }
+        if (board != symmetryBoard || board.getVersion() != symmetryVersion || color != symmetryColor) {
+            // 同じ局面の候補手では使い回す
+            symmetryBoard = board;
+            symmetryVersion = board.getVersion();
+            symmetryColor = color;
+            long player = board.getBits(color.value());
+            long opponent = board.getBits(color.opponentValue());
+            symmetryMask = Symmetry.diagonalTransposes(player, opponent);
         }
-        return false;
+        return (symmetryMask & (1 << (diagonal & 0x06))) != 0;
     }
 
     /**
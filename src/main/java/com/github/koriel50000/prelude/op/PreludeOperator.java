@@ -4,6 +4,7 @@ import com.github.koriel50000.prelude.learning.BitFeature;
 import com.github.koriel50000.prelude.learning.CNNModel;
 import com.github.koriel50000.prelude.learning.PreludeFeature;
 import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.MoveList;
 import com.github.koriel50000.prelude.reversi.Reversi;
 import com.github.koriel50000.prelude.util.Bits;
 import com.github.koriel50000.prelude.util.LineBuffer;
@@ -27,6 +28,7 @@ public class PreludeOperator implements Operator {
 
     private CNNModel model;
     private Random random;
+    private MoveList moves = new MoveList();
 
     public PreludeOperator(BitBoard bitBoard, BitFeature bitFeature,
                            Reversi reversi, PreludeFeature feature, long seed) {
@@ -52,12 +54,16 @@ public class PreludeOperator implements Operator {
     public long evaluate(long player, long opponent, long coords) {
         List<Eval> evals = new ArrayList<>();
 
-        while (coords != 0) {
-            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
+        int size = BitBoard.generateMoves(player, opponent, moves);
+        for (int i = 0; i < size; i++) {
+            long coord = moves.coord(i);
+            if ((coords & coord) == 0) { // 候補に含まれない着手は除く
+                continue;
+            }
 
             // Assert
-            int index = Bits.indexOf(coord);
-            long flipped = bitBoard.computeFlipped(player, opponent, index);
+            int index = moves.index(i);
+            long flipped = moves.flipped(i);
             float[] buffer = bitFeature.getStateBuffer(player, opponent, flipped, coord, index);
             float[] expectedBuffer = feature.getStateBuffer(reversi, Coord.valueOf(coord));
             try {
@@ -68,8 +74,6 @@ public class PreludeOperator implements Operator {
 
             float value = model.calculatePredicatedValue(buffer);
             evals.add(new Eval(coord, value));
-
-            coords ^= coord;  // 一番右のビットを0にする
         }
 
         return optimumChoice(evals);
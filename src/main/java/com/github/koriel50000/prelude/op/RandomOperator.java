@@ -1,17 +1,13 @@
 package com.github.koriel50000.prelude.op;
 
-import com.github.koriel50000.prelude.util.Bits;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import com.github.koriel50000.prelude.reversi.Playout;
 
 public class RandomOperator implements Operator {
 
-    private Random random;
+    private Playout playout;
 
     public RandomOperator(long seed) {
-        random = new Random(seed);
+        playout = new Playout(seed);
     }
 
     @Override
@@ -24,13 +20,6 @@ public class RandomOperator implements Operator {
 
     @Override
     public long evaluate(long playerBoard, long opponentBoard, long coords) {
-        List<Long> moveList = new ArrayList<>();
-        while (coords != 0) {
-            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
-            moveList.add(coord);
-            coords ^= coord;  // 一番右のビットを0にする
-        }
-        long move = moveList.get(random.nextInt(moveList.size()));
-        return move;
+        return playout.randomMove(coords); // 着手可能な位置から一様に選ぶ
     }
 }
@@ -6,6 +6,8 @@ import com.github.koriel50000.prelude.learning.PreludeFeature;
 import com.github.koriel50000.prelude.reversi.BitBoard;
 import com.github.koriel50000.prelude.reversi.Reversi;
 import com.github.koriel50000.prelude.rollout.RolloutPolicy;
+import com.github.koriel50000.prelude.util.Bits;
+import com.github.koriel50000.prelude.winloss.SearchControl;
 import com.github.koriel50000.prelude.winloss.WinLossExplorer;
 
 import java.util.ArrayList;
@@ -15,6 +17,9 @@ import java.util.concurrent.*;
 public class ReferenceOperator implements Operator {
 
     private static final long TIME_LIMIT = 1000; // 制限時間 1000(ms)
+    private static final long EXPLORE_MARGIN = 50; // 勝敗探索は制限時間の50(ms)前に途中結果を返す
+    private static final long ROLLOUT_MARGIN = 50; // ロールアウトは制限時間の50(ms)前に探索を終える
+    private static final long FALLBACK_TIME = 200; // 勝敗探索と同時のロールアウトは1スレッドで200(ms)だけ探索する
 
     private BookSearch bookSearch;
     private RolloutPolicy rolloutPolicy;
@@ -26,7 +31,7 @@ public class ReferenceOperator implements Operator {
     public ReferenceOperator(BitBoard bitBoard, BitFeature bitFeature,
                              Reversi reversi, PreludeFeature feature, long seed) {
         bookSearch = new BookSearch(bitBoard);
-        rolloutPolicy = new RolloutPolicy(bitBoard, bitFeature, reversi, feature, seed);
+        rolloutPolicy = new RolloutPolicy(seed);
         winLossExplorer = new WinLossExplorer(bitBoard);
 
         evaluateTasks = new ArrayList<>();
@@ -62,10 +67,13 @@ public class ReferenceOperator implements Operator {
         executor.shutdown();
 
         rolloutPolicy.destroy();
+        winLossExplorer.destroy();
     }
 
     @Override
     public long evaluate(long player, long opponent, long coords) {
+        // 先読みは、この手の探索と同時に動かないように止める
+        winLossExplorer.cancelSpeculation();
         for (EvaluateTask evaluateTask : evaluateTasks) {
             evaluateTask.setMoves(player, opponent, coords);
         }
@@ -76,9 +84,20 @@ public class ReferenceOperator implements Operator {
         } catch (TimeoutException e) {
             // 時間切れの場合は、ロールアウトから最後の着手を取得
             coord = rolloutPolicy.getLastCoord();
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof CancellationException)) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            // 勝敗探索が1手も読み切れなかった場合は、ロールアウトの着手を使う
+            coord = rolloutPolicy.getLastCoord();
+        } catch (InterruptedException e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
+        if (coord != 0) {
+            // 相手の手番の間に、相手の着手ごとの次の局面を先読みする
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            winLossExplorer.speculate(opponent ^ flipped, player | coord | flipped);
+        }
         return coord;
     }
 
@@ -91,15 +110,32 @@ public class ReferenceOperator implements Operator {
     }
 
     private long rollout(long player, long opponent, long coords) {
-        return rolloutPolicy.rollout(player, opponent, coords);
+        if (!winLossExplorer.notPossible()) {
+            // 勝敗探索が失敗したときの着手だけを、勝敗探索のスレッドの邪魔をしないように1スレッドで用意する
+            rolloutPolicy.rolloutSingle(player, opponent, coords, FALLBACK_TIME);
+            // 勝敗探索の結果を待つ。時間切れの場合はロールアウトの着手を使う
+            throw new CancellationException("wait for explore");
+        }
+        return rolloutPolicy.rollout(player, opponent, coords, TIME_LIMIT - ROLLOUT_MARGIN);
     }
 
     private long explore(long player, long opponent, long coords) {
+        // 先読みで読み切った局面は、空白が勝敗探索を始めるマス数より多くても探索せずに打つ
+        long coord = winLossExplorer.probe(player, opponent, coords);
+        if (coord != 0) {
+            return coord;
+        }
         if (winLossExplorer.notPossible()) {
             throw new CancellationException("not possible");
         }
 
-        return winLossExplorer.explore(player, opponent, coords);
+        // 制限時間の前に打ち切って、読み切った着手の中の最善手を返す(中断されたら探索を止める)
+        SearchControl control = SearchControl.withTimeout(TIME_LIMIT - EXPLORE_MARGIN);
+        coord = winLossExplorer.explore(player, opponent, coords, control);
+        if (coord == 0) {
+            throw new CancellationException("not solved");
+        }
+        return coord;
     }
 
     private static abstract class EvaluateTask implements Callable<Long> {
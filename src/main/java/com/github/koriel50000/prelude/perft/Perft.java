@@ -0,0 +1,166 @@
+package com.github.koriel50000.prelude.perft;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Reversi;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.github.koriel50000.prelude.reversi.Reversi.Color;
+import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
+
+/**
+ * 指定した深さまでの末端局面数を数える(perft)
+ * <p>
+ * パスは1手として数え、両者とも着手できない局面は残りの深さに関係なく末端局面とする
+ */
+public class Perft {
+
+    private static final int SPLIT_DEPTH = 6; // 残りの深さがこれより大きければ子局面を分割する
+
+    private ForkJoinPool pool;
+
+    public Perft(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 末端局面数を並列に数える
+     */
+    public long count(long player, long opponent, int depth) {
+        return pool.invoke(new PerftTask(player, opponent, depth));
+    }
+
+    /**
+     * 末端局面数を逐次に数える
+     */
+    public long countSerial(long player, long opponent, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        long coords = BitBoard.availableMoves(player, opponent);
+        if (coords == 0) {
+            if (BitBoard.availableMoves(opponent, player) == 0) {
+                return 1; // 終局
+            }
+            return countSerial(opponent, player, depth - 1); // パス
+        }
+        if (depth == 1) {
+            return Bits.populationCount(coords); // 最後の1手は着手可能数で数える
+        }
+
+        long nodes = 0;
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
+            int index = Bits.indexOf(coord);
+
+            long flipped = BitBoard.computeFlipped(player, opponent, index);
+            nodes += countSerial(opponent ^ flipped, player | coord | flipped, depth - 1);
+
+            coords ^= coord;  // 一番右のビットを0にする
+        }
+        return nodes;
+    }
+
+    /**
+     * Reversiを検証器として、各局面の着手可能位置と反転位置を照合しながら末端局面数を数える
+     */
+    public long verify(long player, long opponent, int depth) {
+        return verify(new Reversi(), player, opponent, depth);
+    }
+
+    private long verify(Reversi reversi, long player, long opponent, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        // 手番側を常に黒として設定する
+        reversi.setBoard(player, opponent, Color.Black);
+        List<Coord> moves = reversi.availableMoves();
+        long coords = BitBoard.availableMoves(player, opponent);
+        long expectedCoords = Coord.toCoords(moves);
+        if (coords != expectedCoords) {
+            throw new IllegalStateException(String.format(
+                    "availableMoves not match. player=%016x opponent=%016x expected=%016x actual=%016x",
+                    player, opponent, expectedCoords, coords));
+        }
+
+        if (moves.isEmpty()) {
+            reversi.setBoard(opponent, player, Color.Black);
+            if (reversi.availableMoves().isEmpty()) {
+                return 1; // 終局
+            }
+            return verify(reversi, opponent, player, depth - 1); // パス
+        }
+
+        List<long[]> children = new ArrayList<>();
+        for (Coord move : moves) {
+            long coord = Bits.coordAt(move.index());
+            long flipped = BitBoard.computeFlipped(player, opponent, move.index());
+            long expectedFlipped = Coord.toCoords(reversi.computeFlipped(move));
+            if (flipped != expectedFlipped) {
+                throw new IllegalStateException(String.format(
+                        "computeFlipped not match. player=%016x opponent=%016x move=%s expected=%016x actual=%016x",
+                        player, opponent, move, expectedFlipped, flipped));
+            }
+            children.add(new long[]{opponent ^ flipped, player | coord | flipped});
+        }
+
+        long nodes = 0;
+        for (long[] child : children) {
+            nodes += verify(reversi, child[0], child[1], depth - 1);
+        }
+        return nodes;
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private long player;
+        private long opponent;
+        private int depth;
+
+        PerftTask(long player, long opponent, int depth) {
+            this.player = player;
+            this.opponent = opponent;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) {
+                return countSerial(player, opponent, depth);
+            }
+
+            long coords = BitBoard.availableMoves(player, opponent);
+            if (coords == 0) {
+                if (BitBoard.availableMoves(opponent, player) == 0) {
+                    return 1L; // 終局
+                }
+                return new PerftTask(opponent, player, depth - 1).compute(); // パス
+            }
+
+            List<PerftTask> tasks = new ArrayList<>();
+            while (coords != 0) {
+                long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
+                int index = Bits.indexOf(coord);
+
+                long flipped = BitBoard.computeFlipped(player, opponent, index);
+                tasks.add(new PerftTask(opponent ^ flipped, player | coord | flipped, depth - 1));
+
+                coords ^= coord;  // 一番右のビットを0にする
+            }
+
+            long nodes = 0;
+            for (PerftTask task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
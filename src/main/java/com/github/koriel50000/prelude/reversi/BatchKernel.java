@@ -0,0 +1,47 @@
+package com.github.koriel50000.prelude.reversi;
+
+/**
+ * 複数の局面(自石・相手石の配列)をまとめて処理する計算カーネル
+ * <p>
+ * 起動時に -Dprelude.batch=vector|scalar で選択する。
+ * vectorはJDK 16以降で --add-modules jdk.incubator.vector を指定したときだけ使え、使えなければscalarになる。
+ */
+public interface BatchKernel {
+
+    String SCALAR = "scalar";
+    String VECTOR = "vector";
+
+    /**
+     * 先頭からcount個の局面の着手可能な位置を求める
+     */
+    void mobility(long[] players, long[] opponents, long[] mobilities, int count);
+
+    /**
+     * 先頭からcount個の局面に着手して、手番を入れ替える
+     * <p>
+     * 着手の位置(moves)が0ならパスとする
+     */
+    void play(long[] players, long[] opponents, long[] moves, int count);
+
+    /**
+     * 実装の名前を返す
+     */
+    String name();
+
+    static BatchKernel of(String name) {
+        switch (name) {
+            case SCALAR:
+                return new ScalarBatchKernel();
+            case VECTOR:
+                try {
+                    // Vector APIのモジュールがなければ読み込みに失敗する
+                    Class<?> clazz = Class.forName("com.github.koriel50000.prelude.reversi.VectorBatchKernel");
+                    return (BatchKernel) clazz.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    return new ScalarBatchKernel();
+                }
+            default:
+                throw new IllegalArgumentException("no match: " + name);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.SplittableRandom;
+
+/**
+ * 多数の対局を1手ずつまとめて進めるシミュレータ
+ * <p>
+ * 局面を対局ごとのオブジェクトではなく配列(自石・相手石・手番)で持ち、{@link BatchKernel}で全対局を一度に計算する。
+ * 自己対戦やプレイアウトを大量に回すときに使う。
+ */
+public final class BatchSimulator {
+
+    private static final BatchKernel defaultKernel =
+            BatchKernel.of(System.getProperty("prelude.batch", BatchKernel.VECTOR));
+
+    private final BatchKernel kernel;
+    private final int size;
+    private final long[] players;
+    private final long[] opponents;
+    private final long[] mobilities;
+    private final long[] moves;
+    private final int[] colors;
+    private final boolean[] passed;
+    private final boolean[] completed;
+    private int running;
+
+    public BatchSimulator(int size) {
+        this(size, defaultKernel);
+    }
+
+    public BatchSimulator(int size, BatchKernel kernel) {
+        this.kernel = kernel;
+        this.size = size;
+        players = new long[size];
+        opponents = new long[size];
+        mobilities = new long[size];
+        moves = new long[size];
+        colors = new int[size];
+        passed = new boolean[size];
+        completed = new boolean[size];
+        clear();
+    }
+
+    /**
+     * すべての対局を初期局面にする
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            reset(i, 0x0000000810000000L, 0x0000001008000000L, BitBoard.BLACK);
+        }
+        running = size;
+    }
+
+    /**
+     * 対局の局面を設定する
+     */
+    public void set(int i, long blackBoard, long whiteBoard, int color) {
+        if (completed[i]) {
+            ++running;
+        }
+        reset(i, blackBoard, whiteBoard, color);
+    }
+
+    private void reset(int i, long blackBoard, long whiteBoard, int color) {
+        boolean blackTurn = color == BitBoard.BLACK;
+        players[i] = blackTurn ? blackBoard : whiteBoard;
+        opponents[i] = blackTurn ? whiteBoard : blackBoard;
+        colors[i] = color;
+        passed[i] = false;
+        completed[i] = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BatchKernel kernel() {
+        return kernel;
+    }
+
+    public long blackBoard(int i) {
+        return colors[i] == BitBoard.BLACK ? players[i] : opponents[i];
+    }
+
+    public long whiteBoard(int i) {
+        return colors[i] == BitBoard.BLACK ? opponents[i] : players[i];
+    }
+
+    public int currentColor(int i) {
+        return colors[i];
+    }
+
+    public boolean hasCompleted(int i) {
+        return completed[i];
+    }
+
+    /**
+     * 終局していない対局の数を返す
+     */
+    public int running() {
+        return running;
+    }
+
+    /**
+     * すべての対局の着手可能な位置を求める
+     * <p>
+     * 返す配列はシミュレータが持つもので、次に呼び出すまで有効
+     */
+    public long[] computeMobilities() {
+        kernel.mobility(players, opponents, mobilities, size);
+        return mobilities;
+    }
+
+    /**
+     * すべての対局に着手して手番を進める
+     * <p>
+     * 着手の位置は直前の{@link #computeMobilities()}の結果から選ぶ。着手できない対局は0(パス)とする。
+     * 空白がなくなるか、どちらかの石がなくなるか、両者とも続けてパスした対局は終局とし、以降の着手は無視する。
+     */
+    public void play(long[] moves) {
+        for (int i = 0; i < size; i++) {
+            if (completed[i]) {
+                moves[i] = 0;
+            } else if (mobilities[i] == 0) {
+                long player = players[i];
+                long opponent = opponents[i];
+                if (passed[i] || (player | opponent) == -1 || player == 0 || opponent == 0) {
+                    completed[i] = true;
+                    --running;
+                }
+                passed[i] = true;
+            } else {
+                passed[i] = false;
+            }
+        }
+        kernel.play(players, opponents, moves, size);
+        for (int i = 0; i < size; i++) {
+            colors[i] ^= 3; // BLACK(1)とWHITE(2)を入れ替える
+        }
+    }
+
+    /**
+     * すべての対局をランダムな着手で1手進めて、終局していない対局の数を返す
+     */
+    public int playRandom(SplittableRandom random) {
+        computeMobilities();
+        for (int i = 0; i < size; i++) {
+            long coords = mobilities[i];
+            if (coords == 0) {
+                moves[i] = 0;
+                continue;
+            }
+            int n = random.nextInt(Bits.populationCount(coords));
+            for (int j = 0; j < n; j++) {
+                coords &= coords - 1; // 一番右のビットを0にする
+            }
+            moves[i] = Bits.getRightmostBit(coords);
+        }
+        play(moves);
+        return running;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 局面(自石・相手石)の64ビットハッシュ
+ * <p>
+ * 置換表・評価キャッシュ・定石・データセットの重複除去のキーに使う
+ */
+public final class BoardHash {
+
+    private BoardHash() {
+    }
+
+    /**
+     * 局面のハッシュ値を返す
+     */
+    public static long hash(long player, long opponent) {
+        long h = player * 0x9e3779b97f4a7c15L;
+        h ^= Long.rotateLeft(opponent * 0xc2b2ae3d27d4eb4fL, 31);
+        return mix(h);
+    }
+
+    /**
+     * 盤面の8つの対称変換(回転・反転)で同じ値になるハッシュ値を返す
+     * <p>
+     * 8つの変換のハッシュ値の最小値を、分岐なしで1回で求める
+     */
+    public static long canonicalHash(long player, long opponent) {
+        long pLtRt = Bits.flipLtRt(player);
+        long oLtRt = Bits.flipLtRt(opponent);
+        long pUpDn = Bits.flipUpDn(player);
+        long oUpDn = Bits.flipUpDn(opponent);
+        long pFlip = Bits.flip(player);
+        long oFlip = Bits.flip(opponent);
+        long h = hash(player, opponent);
+        h = Math.min(h, hash(pLtRt, oLtRt));
+        h = Math.min(h, hash(pUpDn, oUpDn));
+        h = Math.min(h, hash(pFlip, oFlip));
+        h = Math.min(h, hash(Bits.transposed(player), Bits.transposed(opponent)));
+        h = Math.min(h, hash(Bits.transposed(pLtRt), Bits.transposed(oLtRt)));
+        h = Math.min(h, hash(Bits.transposed(pUpDn), Bits.transposed(oUpDn)));
+        h = Math.min(h, hash(Bits.transposed(pFlip), Bits.transposed(oFlip)));
+        return h;
+    }
+
+    /**
+     * ビットを攪拌する
+     *
+     * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp"/>
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.koriel50000.prelude.reversi;
+
+/**
+ * 反転する石を求める実装
+ * <p>
+ * CPUによって速い方式が違うため、起動時に -Dprelude.flip=carry|line-table|kogge-stone で選択する
+ */
+public interface FlipEngine {
+
+    String CARRY = "carry";
+    String LINE_TABLE = "line-table";
+    String KOGGE_STONE = "kogge-stone";
+
+    /**
+     * 空白の位置(index)に自石を置いたときに反転する石の位置を返す
+     */
+    long computeFlipped(long player, long opponent, int index);
+
+    /**
+     * 実装の名前を返す
+     */
+    String name();
+
+    static FlipEngine of(String name) {
+        switch (name) {
+            case CARRY:
+                return new CarryFlipEngine();
+            case LINE_TABLE:
+                return new LineTableFlipEngine();
+            case KOGGE_STONE:
+                return new KoggeStoneFlipEngine();
+            default:
+                throw new IllegalArgumentException("no match: " + name);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 方向ごとに着手の位置から相手石を倍々のシフトで塗りつぶして(Kogge-Stone)挟んだ石を求める実装
+ * <p>
+ * 分岐とテーブル参照がなく、シフトと論理演算だけで計算する
+ *
+ * @see <a href="https://www.chessprogramming.org/Kogge-Stone_Algorithm"/>
+ */
+final class KoggeStoneFlipEngine implements FlipEngine {
+
+    @Override
+    public long computeFlipped(long player, long opponent, int index) {
+        long move = Bits.coordAt(index);
+        long opponentBoardMasked = opponent & 0x7e7e7e7e7e7e7e7eL;
+
+        long flipped = flippedLeft(player, opponentBoardMasked, move, 1); // 右
+        flipped |= flippedRight(player, opponentBoardMasked, move, 1); // 左
+        flipped |= flippedLeft(player, opponent, move, 8); // 下
+        flipped |= flippedRight(player, opponent, move, 8); // 上
+        flipped |= flippedLeft(player, opponentBoardMasked, move, 9); // 右下
+        flipped |= flippedRight(player, opponentBoardMasked, move, 9); // 左上
+        flipped |= flippedLeft(player, opponentBoardMasked, move, 7); // 左下
+        flipped |= flippedRight(player, opponentBoardMasked, move, 7); // 右上
+        return flipped;
+    }
+
+    /**
+     * 左シフトの方向に挟んだ石を返す
+     */
+    private static long flippedLeft(long player, long propagator, long move, int shift) {
+        long generator = move;
+        generator |= propagator & (generator << shift);
+        propagator &= propagator << shift;
+        generator |= propagator & (generator << (shift * 2));
+        propagator &= propagator << (shift * 2);
+        generator |= propagator & (generator << (shift * 4));
+        long outflank = (generator << shift) & player;
+        // 挟めていなければ0にする
+        return generator & ~move & ((outflank | -outflank) >> 63);
+    }
+
+    /**
+     * 右シフトの方向に挟んだ石を返す
+     */
+    private static long flippedRight(long player, long propagator, long move, int shift) {
+        long generator = move;
+        generator |= propagator & (generator >>> shift);
+        propagator &= propagator >>> shift;
+        generator |= propagator & (generator >>> (shift * 2));
+        propagator &= propagator >>> (shift * 2);
+        generator |= propagator & (generator >>> (shift * 4));
+        long outflank = (generator >>> shift) & player;
+        // 挟めていなければ0にする
+        return generator & ~move & ((outflank | -outflank) >> 63);
+    }
+
+    @Override
+    public String name() {
+        return KOGGE_STONE;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.koriel50000.prelude.reversi;
+
+/**
+ * 最後の1つの空白に打ったときに反転する石の数を、反転する石を求めずに表引きで数える
+ * <p>
+ * 空白が1つなら、自石以外はすべて相手石になるため、ライン上の自石の並び(8ビット)だけで反転数が決まる。
+ * 横・縦は位置xごと、斜めはラインの長さが違うため位置ごとに表を持つ。
+ */
+public final class LastFlip {
+
+    private static final byte[] LINE = new byte[8 * 256]; // 横・縦
+    private static final byte[] DIAGONAL = new byte[64 * 256]; // 右下がりの斜め
+    private static final byte[] ANTI_DIAGONAL = new byte[64 * 256]; // 左下がりの斜め
+
+    static {
+        for (int x = 0; x < 8; x++) {
+            for (int line = 0; line < 256; line++) {
+                LINE[x * 256 + line] = (byte) count(x, line, 0xff);
+            }
+        }
+        for (int index = 0; index < 64; index++) {
+            int x = index & 7;
+            int mask = LineTableFlipEngine.gatherDiagonal(LineTableFlipEngine.DIAGONAL[index]);
+            int antiMask = LineTableFlipEngine.gatherDiagonal(LineTableFlipEngine.ANTI_DIAGONAL[index]);
+            for (int line = 0; line < 256; line++) {
+                DIAGONAL[index * 256 + line] = (byte) count(x, line & mask, mask);
+                ANTI_DIAGONAL[index * 256 + line] = (byte) count(x, line & antiMask, antiMask);
+            }
+        }
+    }
+
+    private LastFlip() {
+    }
+
+    /**
+     * ライン上の位置x以外の空でない位置(mask)のうち、自石でない位置を相手石として反転数を数える
+     */
+    private static int count(int x, int player, int mask) {
+        int opponent = ~player & mask & ~(0x80 >>> x) & 0xff;
+        int outflank = LineTableFlipEngine.outflank(x, opponent) & player;
+        return Integer.bitCount(LineTableFlipEngine.flipped(x, outflank));
+    }
+
+    /**
+     * 空白が指定された位置だけの局面で、自石側がそこに打ったときの反転数を返す
+     */
+    public static int count(long player, int index) {
+        int y = index >>> 3;
+        int x = index & 7;
+        int n = LINE[x * 256 + ((int) (player >>> (56 - y * 8)) & 0xff)];
+        n += LINE[y * 256 + LineTableFlipEngine.gatherColumn(player, x)];
+        n += DIAGONAL[index * 256 + LineTableFlipEngine.gatherDiagonal(player & LineTableFlipEngine.DIAGONAL[index])];
+        n += ANTI_DIAGONAL[index * 256
+                + LineTableFlipEngine.gatherDiagonal(player & LineTableFlipEngine.ANTI_DIAGONAL[index])];
+        return n;
+    }
+}
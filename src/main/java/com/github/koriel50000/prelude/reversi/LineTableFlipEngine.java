@@ -0,0 +1,148 @@
+package com.github.koriel50000.prelude.reversi;
+
+/**
+ * 着手の位置を通る4本のライン(横・縦・2つの斜め)を8ビットに集めて、表引きで挟んだ石を求める実装
+ * <p>
+ * ライン上の位置xは、横と斜めは列、縦は行とし、8ビットの上位ビットを0とする。
+ * OUTFLANK[x][相手石]で両側の相手石の連続の先の位置を求め、自石とのANDで挟める位置に絞り、
+ * FLIPPED[x][挟める位置]でその間の位置を求める。
+ */
+final class LineTableFlipEngine implements FlipEngine {
+
+    private static final byte[] OUTFLANK = new byte[8 * 256];
+    private static final byte[] FLIPPED = new byte[8 * 256];
+    private static final long[] COLUMN = new long[256]; // 8ビットをA列に展開する
+    static final long[] DIAGONAL = new long[64]; // 右下がりの斜めライン
+    static final long[] ANTI_DIAGONAL = new long[64]; // 左下がりの斜めライン
+
+    private static final long FILE_A = 0x8080808080808080L;
+
+    static {
+        for (int x = 0; x < 8; x++) {
+            for (int line = 0; line < 256; line++) {
+                OUTFLANK[x * 256 + line] = (byte) outflank(x, line);
+                FLIPPED[x * 256 + line] = (byte) flipped(x, line);
+            }
+        }
+        for (int line = 0; line < 256; line++) {
+            long column = 0;
+            for (int y = 0; y < 8; y++) {
+                if ((line & (0x80 >>> y)) != 0) {
+                    column |= 0x8000000000000000L >>> (y * 8);
+                }
+            }
+            COLUMN[line] = column;
+        }
+        for (int index = 0; index < 64; index++) {
+            int y = index >>> 3;
+            int x = index & 7;
+            for (int i = 0; i < 64; i++) {
+                int y_ = i >>> 3;
+                int x_ = i & 7;
+                if (y_ - x_ == y - x) {
+                    DIAGONAL[index] |= 0x8000000000000000L >>> i;
+                }
+                if (y_ + x_ == y + x) {
+                    ANTI_DIAGONAL[index] |= 0x8000000000000000L >>> i;
+                }
+            }
+        }
+    }
+
+    /**
+     * 位置xから両側に相手石(両端は除く)をたどった先の位置を返す
+     */
+    static int outflank(int x, int opponent) {
+        int inner = opponent & 0x7e;
+        int outflank = 0;
+        int i = x - 1;
+        while (i >= 0 && (inner & (0x80 >>> i)) != 0) {
+            i--;
+        }
+        if (i >= 0 && i < x - 1) {
+            outflank |= 0x80 >>> i;
+        }
+        i = x + 1;
+        while (i < 8 && (inner & (0x80 >>> i)) != 0) {
+            i++;
+        }
+        if (i < 8 && i > x + 1) {
+            outflank |= 0x80 >>> i;
+        }
+        return outflank;
+    }
+
+    /**
+     * 位置xと両側の挟める位置の間の位置を返す
+     */
+    static int flipped(int x, int outflank) {
+        int flipped = 0;
+        for (int i = x - 1; i >= 0; i--) {
+            if ((outflank & (0x80 >>> i)) != 0) {
+                for (int j = i + 1; j < x; j++) {
+                    flipped |= 0x80 >>> j;
+                }
+                break;
+            }
+        }
+        for (int i = x + 1; i < 8; i++) {
+            if ((outflank & (0x80 >>> i)) != 0) {
+                for (int j = x + 1; j < i; j++) {
+                    flipped |= 0x80 >>> j;
+                }
+                break;
+            }
+        }
+        return flipped;
+    }
+
+    @Override
+    public long computeFlipped(long player, long opponent, int index) {
+        int y = index >>> 3;
+        int x = index & 7;
+
+        // 横
+        int shift = 56 - y * 8;
+        long flipped = (long) flippedLine(x, (int) (player >>> shift) & 0xff, (int) (opponent >>> shift) & 0xff) << shift;
+
+        // 縦
+        int line = flippedLine(y, gatherColumn(player, x), gatherColumn(opponent, x));
+        flipped |= COLUMN[line] >>> x;
+
+        // 右下がりの斜め
+        long mask = DIAGONAL[index];
+        line = flippedLine(x, gatherDiagonal(player & mask), gatherDiagonal(opponent & mask));
+        flipped |= (line * 0x0101010101010101L) & mask;
+
+        // 左下がりの斜め
+        mask = ANTI_DIAGONAL[index];
+        line = flippedLine(x, gatherDiagonal(player & mask), gatherDiagonal(opponent & mask));
+        flipped |= (line * 0x0101010101010101L) & mask;
+
+        return flipped;
+    }
+
+    private static int flippedLine(int x, int player, int opponent) {
+        int outflank = OUTFLANK[x * 256 + opponent] & player;
+        return FLIPPED[x * 256 + outflank] & 0xff;
+    }
+
+    /**
+     * x列を行の順に8ビットに集める
+     */
+    static int gatherColumn(long bits, int x) {
+        return (int) (((((bits << x) & FILE_A) >>> 7) * 0x0102040810204080L) >>> 56);
+    }
+
+    /**
+     * 各列に1つしか位置がないビット列を列の順に8ビットに集める
+     */
+    static int gatherDiagonal(long bits) {
+        return (int) ((bits * 0x0101010101010101L) >>> 56);
+    }
+
+    @Override
+    public String name() {
+        return LINE_TABLE;
+    }
+}
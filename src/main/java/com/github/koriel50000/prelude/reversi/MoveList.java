@@ -0,0 +1,117 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 局面の着手可能な位置ごとの情報(反転する石・反転数・着手後の相手の着手可能な位置)の一覧
+ * <p>
+ * 事前に確保した配列に{@link BitBoard#generateMoves(long, long, MoveList)}で詰めるため、生成でオブジェクトを作らない。
+ * 探索では深さごとに1つ使う。
+ */
+public final class MoveList {
+
+    private static final int CAPACITY = 64; // 空白の数を超えない
+
+    private final long[] coords = new long[CAPACITY];
+    private final long[] flipped = new long[CAPACITY];
+    private final int[] flipCounts = new int[CAPACITY];
+    private final long[] replyMoves = new long[CAPACITY];
+    private final int[] replyMobilities = new int[CAPACITY];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public long coord(int i) {
+        return coords[i];
+    }
+
+    public int index(int i) {
+        return Bits.indexOf(coords[i]);
+    }
+
+    public long flipped(int i) {
+        return flipped[i];
+    }
+
+    public int flipCount(int i) {
+        return flipCounts[i];
+    }
+
+    /**
+     * 着手後の相手の着手可能な位置を返す
+     */
+    public long replyMoves(int i) {
+        return replyMoves[i];
+    }
+
+    /**
+     * 着手後の相手の着手可能数を返す
+     */
+    public int replyMobility(int i) {
+        return replyMobilities[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(long coord, long flipped, long replyMoves) {
+        coords[size] = coord;
+        this.flipped[size] = flipped;
+        flipCounts[size] = Bits.populationCount(flipped);
+        this.replyMoves[size] = replyMoves;
+        replyMobilities[size] = Bits.populationCount(replyMoves);
+        size++;
+    }
+
+    /**
+     * 着手後の相手の着手可能数が少ない順(fastest-first)に並べ替える
+     * <p>
+     * 数が同じ着手は生成した順のまま
+     */
+    public void sortFastestFirst() {
+        for (int i = 1; i < size; i++) {
+            int j = i;
+            while (j > 0 && replyMobilities[j - 1] > replyMobilities[j]) {
+                swap(j - 1, j);
+                j--;
+            }
+        }
+    }
+
+    /**
+     * 指定された位置の着手を先頭に移す(置換表の最善手を先に調べる)
+     * <p>
+     * 他の着手は並び順のまま
+     */
+    public void moveToFront(int index) {
+        for (int i = 0; i < size; i++) {
+            if (Bits.indexOf(coords[i]) == index) {
+                for (int j = i; j > 0; j--) {
+                    swap(j - 1, j);
+                }
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        long coord = coords[i];
+        coords[i] = coords[j];
+        coords[j] = coord;
+        long flipped_ = flipped[i];
+        flipped[i] = flipped[j];
+        flipped[j] = flipped_;
+        long replyMoves_ = replyMoves[i];
+        replyMoves[i] = replyMoves[j];
+        replyMoves[j] = replyMoves_;
+        int flipCount = flipCounts[i];
+        flipCounts[i] = flipCounts[j];
+        flipCounts[j] = flipCount;
+        int replyMobility = replyMobilities[i];
+        replyMobilities[i] = replyMobilities[j];
+        replyMobilities[j] = replyMobility;
+    }
+}
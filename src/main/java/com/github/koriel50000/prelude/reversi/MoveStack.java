@@ -0,0 +1,110 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 探索用の着手スタック
+ * <p>
+ * 局面を事前に確保した配列に積むため、着手(play/pass)と戻し(undo)でオブジェクトを生成しない。
+ * スレッドごとに1つ使う。
+ */
+public final class MoveStack {
+
+    private static final int DEFAULT_CAPACITY = 128; // 60手と各手の間のパスを積める
+
+    private final long[] players;
+    private final long[] opponents;
+    private int ply;
+
+    public MoveStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveStack(int capacity) {
+        players = new long[capacity];
+        opponents = new long[capacity];
+    }
+
+    /**
+     * スタックを空にして局面を設定する
+     */
+    public void set(long player, long opponent) {
+        ply = 0;
+        players[0] = player;
+        opponents[0] = opponent;
+    }
+
+    public void set(Position position) {
+        set(position.player(), position.opponent());
+    }
+
+    public long player() {
+        return players[ply];
+    }
+
+    public long opponent() {
+        return opponents[ply];
+    }
+
+    /**
+     * 空白の位置を返す
+     */
+    public long empties() {
+        return ~(players[ply] | opponents[ply]);
+    }
+
+    /**
+     * 着手可能な位置を返す
+     */
+    public long mobility() {
+        return BitBoard.availableMoves(players[ply], opponents[ply]);
+    }
+
+    /**
+     * 設定した局面からの手数(パスを含む)を返す
+     */
+    public int ply() {
+        return ply;
+    }
+
+    /**
+     * 指定された位置に石を打ち、反転した石の位置を返す
+     */
+    public long play(int index) {
+        long player = players[ply];
+        long opponent = opponents[ply];
+        long coord = Bits.coordAt(index);
+        long flipped = BitBoard.computeFlipped(player, opponent, index);
+        ++ply;
+        players[ply] = opponent ^ flipped;
+        opponents[ply] = player | coord | flipped;
+        return flipped;
+    }
+
+    /**
+     * パスする
+     */
+    public void pass() {
+        long player = players[ply];
+        ++ply;
+        players[ply] = opponents[ply - 1];
+        opponents[ply] = player;
+    }
+
+    /**
+     * 直前の着手またはパスを戻す
+     */
+    public void undo() {
+        if (ply == 0) {
+            throw new IllegalStateException("empty stack");
+        }
+        --ply;
+    }
+
+    /**
+     * 現在の局面を返す
+     */
+    public Position toPosition() {
+        return new Position(players[ply], opponents[ply]);
+    }
+}
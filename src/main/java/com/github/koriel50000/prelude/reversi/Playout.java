@@ -0,0 +1,74 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 終局までランダムに打つプレイアウトの計算カーネル
+ * <p>
+ * 局面は自石・相手石の2つのlongだけで進め、着手は着手可能な位置から{@link Bits#selectBit(long, int)}で一様に選ぶため、
+ * オブジェクトを作らない。乱数はxorshift64*で、スレッドごとにインスタンスを持つ(スレッドセーフではない)。
+ */
+public final class Playout {
+
+    private long state; // xorshift64*の状態(0以外)
+
+    public Playout(long seed) {
+        // SplittableRandomと同じ方法でシードを混ぜる
+        long z = seed + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z ^= z >>> 31;
+        state = (z != 0) ? z : 0x9e3779b97f4a7c15L;
+    }
+
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545f4914f6cdd1dL;
+    }
+
+    /**
+     * 0以上bound未満の乱数を返す(上位32ビットの掛け算で範囲に写す)
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * 着手可能な位置(0以外)から一様に1つ選んで返す
+     */
+    public long randomMove(long mobility) {
+        return Bits.selectBit(mobility, nextInt(Bits.populationCount(mobility)));
+    }
+
+    /**
+     * 終局までランダムに打って、手番側から見た石差を返す(空白は数えない)
+     */
+    public int play(long player, long opponent) {
+        int sign = 1;
+        boolean passed = false;
+        while ((player | opponent) != -1) {
+            long mobility = BitBoard.availableMoves(player, opponent);
+            if (mobility == 0) {
+                if (passed) {
+                    break;
+                }
+                passed = true;
+            } else {
+                passed = false;
+                long coord = randomMove(mobility);
+                long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+                player |= coord | flipped;
+                opponent ^= flipped;
+            }
+            long swap = player;
+            player = opponent;
+            opponent = swap;
+            sign = -sign;
+        }
+        return sign * (Bits.populationCount(player) - Bits.populationCount(opponent));
+    }
+}
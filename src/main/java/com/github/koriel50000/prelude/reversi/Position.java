@@ -0,0 +1,120 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 手番側から見た局面(不変)
+ * <p>
+ * 自石(player)と相手石(opponent)の2つのビット列だけを持つため、スレッド間で共有できる
+ */
+public final class Position {
+
+    private final long player;
+    private final long opponent;
+
+    public Position(long player, long opponent) {
+        this.player = player;
+        this.opponent = opponent;
+    }
+
+    /**
+     * 初期局面(黒番)を返す
+     */
+    public static Position initial() {
+        return new Position(0x0000000810000000L, 0x0000001008000000L);
+    }
+
+    public long player() {
+        return player;
+    }
+
+    public long opponent() {
+        return opponent;
+    }
+
+    /**
+     * 空白の位置を返す
+     */
+    public long empties() {
+        return ~(player | opponent);
+    }
+
+    public int emptyCount() {
+        return Bits.populationCount(empties());
+    }
+
+    /**
+     * 着手可能な位置を返す
+     */
+    public long mobility() {
+        return BitBoard.availableMoves(player, opponent);
+    }
+
+    /**
+     * 指定された位置に石を打った局面を返す
+     */
+    public Position play(int index) {
+        long coord = Bits.coordAt(index);
+        long flipped = BitBoard.computeFlipped(player, opponent, index);
+        return new Position(opponent ^ flipped, player | coord | flipped);
+    }
+
+    /**
+     * パスした局面を返す
+     */
+    public Position pass() {
+        return new Position(opponent, player);
+    }
+
+    /**
+     * 両者とも着手できなければtrue
+     */
+    public boolean hasCompleted() {
+        return mobility() == 0 && BitBoard.availableMoves(opponent, player) == 0;
+    }
+
+    /**
+     * 終局時の石差を返す(空白は勝った側に加える)
+     */
+    public int finalScore() {
+        return finalScore(player, opponent);
+    }
+
+    /**
+     * 終局時の石差を返す(空白は勝った側に加える)
+     */
+    public static int finalScore(long player, long opponent) {
+        int playerCount = Bits.populationCount(player);
+        int opponentCount = Bits.populationCount(opponent);
+        int diff = playerCount - opponentCount;
+        int empties = 64 - playerCount - opponentCount;
+        if (diff > 0) {
+            return diff + empties;
+        } else if (diff < 0) {
+            return diff - empties;
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Position)) {
+            return false;
+        }
+        Position position = (Position) obj;
+        return player == position.player && opponent == position.opponent;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(player) * 31 + Long.hashCode(opponent);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x:%016x", player, opponent);
+    }
+}
@@ -29,6 +29,17 @@ public class Reversi {
         score = null;
     }
 
+    /**
+     * 盤面を指定した局面に設定する
+     */
+    public void setBoard(long blackBoard, long whiteBoard, Color color) {
+        board.set(blackBoard, whiteBoard);
+        currentColor = color;
+        turnCount = 61 - board.getEmptyStones();
+        passedBefore = false;
+        score = null;
+    }
+
     /**
      * 方向を指定して石が打てるかを判定する
      */
@@ -201,6 +212,7 @@ public class Reversi {
 
         private Stone[] board;
         private int[] stones;
+        private int version; // 盤面を変えるごとに増やす
 
         Board() {
             board = new Stone[8 * 8];
@@ -218,6 +230,27 @@ public class Reversi {
             stones[Stone.EMPTY.ordinal()] = 60;
             stones[Stone.BLACK.ordinal()] = 2;
             stones[Stone.WHITE.ordinal()] = 2;
+            version++;
+        }
+
+        void set(long blackBoard, long whiteBoard) {
+            stones[Stone.EMPTY.ordinal()] = 0;
+            stones[Stone.BLACK.ordinal()] = 0;
+            stones[Stone.WHITE.ordinal()] = 0;
+            for (Coord coord : Coord.values()) {
+                long bit = Bits.coordAt(coord.index());
+                Stone stone;
+                if ((blackBoard & bit) != 0) {
+                    stone = Stone.BLACK;
+                } else if ((whiteBoard & bit) != 0) {
+                    stone = Stone.WHITE;
+                } else {
+                    stone = Stone.EMPTY;
+                }
+                board[coord.index()] = stone;
+                stones[stone.ordinal()]++;
+            }
+            version++;
         }
 
         void put(Coord coord, Color color) {
@@ -228,6 +261,14 @@ public class Reversi {
             }
             board[coord.index()] = color.value();
             stones[color.value().ordinal()]++; // 自石を増やす
+            version++;
+        }
+
+        /**
+         * 盤面の版を返す(同じ盤面から計算した値を使い回せるかの判定に使う)
+         */
+        public int getVersion() {
+            return version;
         }
 
         public int getEmptyStones() {
@@ -242,6 +283,19 @@ public class Reversi {
             return stones[Stone.WHITE.ordinal()];
         }
 
+        /**
+         * 指定された石の位置をビット列で返す
+         */
+        public long getBits(Stone stone) {
+            long bits = 0;
+            for (Coord coord : Coord.values()) {
+                if (board[coord.index()] == stone) {
+                    bits |= Bits.coordAt(coord.index());
+                }
+            }
+            return bits;
+        }
+
         public Stone get(int x, int y) {
             return get(Coord.valueOf(x, y));
         }
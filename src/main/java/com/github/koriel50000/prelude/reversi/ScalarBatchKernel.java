@@ -0,0 +1,33 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * BitBoardの演算を1局面ずつ呼び出す実装
+ */
+final class ScalarBatchKernel implements BatchKernel {
+
+    @Override
+    public void mobility(long[] players, long[] opponents, long[] mobilities, int count) {
+        for (int i = 0; i < count; i++) {
+            mobilities[i] = BitBoard.availableMoves(players[i], opponents[i]);
+        }
+    }
+
+    @Override
+    public void play(long[] players, long[] opponents, long[] moves, int count) {
+        for (int i = 0; i < count; i++) {
+            long player = players[i];
+            long opponent = opponents[i];
+            long move = moves[i];
+            long flipped = move != 0 ? BitBoard.computeFlipped(player, opponent, Bits.indexOf(move)) : 0;
+            players[i] = opponent ^ flipped;
+            opponents[i] = player | move | flipped;
+        }
+    }
+
+    @Override
+    public String name() {
+        return SCALAR;
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 確定石(以降どう打っても反転しない石)の下限を求める
+ * <p>
+ * 次の順に確定石を求める
+ * <ol>
+ * <li>辺の石は辺のライン上でしか挟まれないため、辺の石の並び(3^8通り)ごとに、
+ * 辺への着手をすべて試しても反転しない石を表(EDGE_STABLE)にしておく</li>
+ * <li>4本のライン(横・縦・2つの斜め)がすべて埋まった位置の石</li>
+ * <li>4方向それぞれで、ラインが埋まっているか、盤の端か、隣に確定石がある石(変化がなくなるまで繰り返す)</li>
+ * </ol>
+ */
+public final class Stability {
+
+    private static final byte[] EDGE_STABLE = new byte[6561]; // 辺の自石の並びと相手石の並び(3進数)ごと
+    private static final short[] TERNARY = new short[256]; // 8ビットを3進数の各桁の1に変換する
+    private static final long[] FILE_A = new long[256]; // 8ビットをA列に展開する
+    private static final long[] DIAGONALS = new long[11]; // 長さ3以上の右下がりの斜めライン
+    private static final long[] ANTI_DIAGONALS = new long[11]; // 長さ3以上の左下がりの斜めライン
+
+    private static final long NOT_FILE_A = 0x7f7f7f7f7f7f7f7fL;
+    private static final long NOT_FILE_H = 0xfefefefefefefefeL;
+    private static final long EDGE_HORIZONTAL = 0x8181818181818181L; // 左右の端
+    private static final long EDGE_VERTICAL = 0xff000000000000ffL; // 上下の端
+    private static final long EDGE = EDGE_HORIZONTAL | EDGE_VERTICAL; // 斜めの端(長さ2以下の斜めも含む)
+
+    static {
+        for (int line = 0; line < 256; line++) {
+            int ternary = 0;
+            long column = 0;
+            for (int x = 0; x < 8; x++) {
+                if ((line & (0x80 >>> x)) != 0) {
+                    ternary += power3(x);
+                    column |= 0x8000000000000000L >>> (x * 8);
+                }
+            }
+            TERNARY[line] = (short) ternary;
+            FILE_A[line] = column;
+        }
+
+        boolean[] done = new boolean[6561];
+        for (int player = 0; player < 256; player++) {
+            for (int opponent = 0; opponent < 256; opponent++) {
+                if ((player & opponent) == 0) {
+                    edgeStable(player, opponent, done);
+                }
+            }
+        }
+
+        int n = 0;
+        int m = 0;
+        for (int i = 0; i < 64; i++) {
+            int y = i >>> 3;
+            int x = i & 7;
+            // 上端・左端から始まる右下がりの斜め、上端・右端から始まる左下がりの斜め
+            if (y == 0 || x == 0) {
+                long line = 0;
+                for (int k = 0; y + k < 8 && x + k < 8; k++) {
+                    line |= Bits.coordAt((y + k) * 8 + x + k);
+                }
+                if (Bits.populationCount(line) >= 3) {
+                    DIAGONALS[n++] = line;
+                }
+            }
+            if (y == 0 || x == 7) {
+                long line = 0;
+                for (int k = 0; y + k < 8 && x - k >= 0; k++) {
+                    line |= Bits.coordAt((y + k) * 8 + x - k);
+                }
+                if (Bits.populationCount(line) >= 3) {
+                    ANTI_DIAGONALS[m++] = line;
+                }
+            }
+        }
+    }
+
+    private Stability() {
+    }
+
+    private static int power3(int n) {
+        int power = 1;
+        for (int i = 0; i < n; i++) {
+            power *= 3;
+        }
+        return power;
+    }
+
+    /**
+     * 辺の空白にどちらかの石が打たれる、すべての進行で反転しない自石を求めて表に登録する
+     * <p>
+     * 空白に打つ石は辺の石を反転しなくてもよい(辺以外の方向の着手)
+     */
+    private static int edgeStable(int player, int opponent, boolean[] done) {
+        int index = TERNARY[player] + 2 * TERNARY[opponent];
+        if (done[index]) {
+            return EDGE_STABLE[index] & 0xff;
+        }
+
+        int stable = player;
+        int emptyLine = ~(player | opponent) & 0xff;
+        for (int x = 0; x < 8 && stable != 0; x++) {
+            int coord = 0x80 >>> x;
+            if ((emptyLine & coord) == 0) {
+                continue;
+            }
+            // 自石を打つ
+            int flipped = LineTableFlipEngine.flipped(x, LineTableFlipEngine.outflank(x, opponent) & player);
+            stable &= edgeStable(player | coord | flipped, opponent ^ flipped, done);
+            // 相手石を打つ
+            flipped = LineTableFlipEngine.flipped(x, LineTableFlipEngine.outflank(x, player) & opponent);
+            stable &= edgeStable(player ^ flipped, opponent | coord | flipped, done);
+        }
+        EDGE_STABLE[index] = (byte) stable;
+        done[index] = true;
+        return stable;
+    }
+
+    private static int edgeStable(int player, int opponent) {
+        return EDGE_STABLE[TERNARY[player] + 2 * TERNARY[opponent]] & 0xff;
+    }
+
+    /**
+     * 4つの辺の確定石を返す
+     */
+    private static long edgeStableDiscs(long player, long opponent) {
+        long stable = (long) edgeStable((int) (player >>> 56), (int) (opponent >>> 56)) << 56;
+        stable |= edgeStable((int) player & 0xff, (int) opponent & 0xff);
+        stable |= FILE_A[edgeStable(LineTableFlipEngine.gatherColumn(player, 0),
+                LineTableFlipEngine.gatherColumn(opponent, 0))];
+        stable |= FILE_A[edgeStable(LineTableFlipEngine.gatherColumn(player, 7),
+                LineTableFlipEngine.gatherColumn(opponent, 7))] >>> 7;
+        return stable;
+    }
+
+    /**
+     * 自石の確定石(の下限)を返す
+     */
+    public static long stableDiscs(long player, long opponent) {
+        long filled = player | opponent;
+
+        // 埋まっている横のライン
+        long horizontal = 0;
+        for (int shift = 0; shift < 64; shift += 8) {
+            if (((filled >>> shift) & 0xff) == 0xff) {
+                horizontal |= 0xffL << shift;
+            }
+        }
+        // 埋まっている縦のライン
+        long columns = filled & (filled >>> 32);
+        columns &= columns >>> 16;
+        columns &= columns >>> 8;
+        long vertical = (columns & 0xff) * 0x0101010101010101L;
+        // 埋まっている斜めのライン
+        long diagonal = 0;
+        long antiDiagonal = 0;
+        for (int i = 0; i < DIAGONALS.length; i++) {
+            if ((filled & DIAGONALS[i]) == DIAGONALS[i]) {
+                diagonal |= DIAGONALS[i];
+            }
+            if ((filled & ANTI_DIAGONALS[i]) == ANTI_DIAGONALS[i]) {
+                antiDiagonal |= ANTI_DIAGONALS[i];
+            }
+        }
+
+        long stable = edgeStableDiscs(player, opponent) | (player & horizontal & vertical & diagonal & antiDiagonal);
+        // その方向で挟まれない位置(埋まっているライン・盤の端)
+        horizontal |= EDGE_HORIZONTAL;
+        vertical |= EDGE_VERTICAL;
+        diagonal |= EDGE;
+        antiDiagonal |= EDGE;
+        while (true) {
+            long safe = (horizontal | ((stable >>> 1) & NOT_FILE_A) | ((stable << 1) & NOT_FILE_H))
+                    & (vertical | (stable >>> 8) | (stable << 8))
+                    & (diagonal | ((stable >>> 9) & NOT_FILE_A) | ((stable << 9) & NOT_FILE_H))
+                    & (antiDiagonal | ((stable >>> 7) & NOT_FILE_H) | ((stable << 7) & NOT_FILE_A));
+            long next = stable | (player & safe);
+            if (next == stable) {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+
+    /**
+     * 自石の確定石の数(の下限)を返す
+     */
+    public static int count(long player, long opponent) {
+        return Bits.populationCount(stableDiscs(player, opponent));
+    }
+}
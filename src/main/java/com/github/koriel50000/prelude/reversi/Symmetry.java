@@ -0,0 +1,146 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+
+/**
+ * 盤面の8つの対称変換(回転・反転)
+ * <p>
+ * 変換IDは反転(ビット1-2)のあとに転置(ビット0)する組み合わせで、特徴量の領域番号の下位3ビットと同じ
+ */
+public final class Symmetry {
+
+    public static final int IDENTITY = 0; // 変換なし
+    public static final int TRANSPOSED = 1; // 転置
+    public static final int FLIP_LT_RT = 2; // 左右反転
+    public static final int FLIP_UP_DN = 4; // 上下反転
+    public static final int FLIP = 6; // 上下左右反転
+    public static final int COUNT = 8;
+
+    private static final long UPPER_TRIANGLE = 0x7F3F1F0F07030100L; // 対角線より右上
+
+    private Symmetry() {
+    }
+
+    /**
+     * ビット列を変換して返す
+     */
+    public static long apply(int id, long bits) {
+        long bits_;
+        switch (id & 0x06) {
+            case IDENTITY:
+                bits_ = bits;
+                break;
+            case FLIP_LT_RT:
+                bits_ = Bits.flipLtRt(bits);
+                break;
+            case FLIP_UP_DN:
+                bits_ = Bits.flipUpDn(bits);
+                break;
+            default:
+                bits_ = Bits.flip(bits);
+                break;
+        }
+        if ((id & TRANSPOSED) != 0) {
+            bits_ = Bits.transposed(bits_);
+        }
+        return bits_;
+    }
+
+    /**
+     * 逆変換の変換IDを返す
+     * <p>
+     * 左右反転・上下反転と転置の組み合わせだけは、逆変換で反転の向きが入れ替わる
+     */
+    public static int inverse(int id) {
+        switch (id) {
+            case FLIP_LT_RT | TRANSPOSED:
+                return FLIP_UP_DN | TRANSPOSED;
+            case FLIP_UP_DN | TRANSPOSED:
+                return FLIP_LT_RT | TRANSPOSED;
+            default:
+                return id;
+        }
+    }
+
+    /**
+     * 変換したビット列を元に戻して返す
+     */
+    public static long invert(int id, long bits) {
+        return apply(inverse(id), bits);
+    }
+
+    /**
+     * 8つの変換のうち、(自石, 相手石)を符号なしで辞書順比較して最小になる変換IDを返す
+     * <p>
+     * 代表局面は apply(id, player), apply(id, opponent) で得られる。同じ値の変換が複数あれば小さいIDを返す。
+     */
+    public static int canonicalize(long player, long opponent) {
+        long tPlayer = Bits.transposed(player);
+        long tOpponent = Bits.transposed(opponent);
+        int best = IDENTITY;
+        long bestPlayer = player;
+        long bestOpponent = opponent;
+        for (int id = 1; id < COUNT; id++) {
+            long player_ = applyTransposed(id, player, tPlayer);
+            long opponent_ = applyTransposed(id, opponent, tOpponent);
+            int cmp = Long.compareUnsigned(player_, bestPlayer);
+            if (cmp < 0 || (cmp == 0 && Long.compareUnsigned(opponent_, bestOpponent) < 0)) {
+                best = id;
+                bestPlayer = player_;
+                bestOpponent = opponent_;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 対角線上の着手で転置が必要な反転の集合を返す
+     * <p>
+     * 反転(変換なし・左右・上下・上下左右)ごとに、反転後の盤面の右上三角領域を左上から転置行列と比較して、
+     * 初めての違いが自石のとき変換IDのビット(1 &lt;&lt; id)を立てる。違いがなければ立てない。
+     */
+    public static int diagonalTransposes(long player, long opponent) {
+        long tPlayer = Bits.transposed(player);
+        long tOpponent = Bits.transposed(opponent);
+        int mask = 0;
+        for (int id = IDENTITY; id < COUNT; id += 2) {
+            long player_ = applyTransposed(id, player, tPlayer);
+            long opponent_ = applyTransposed(id, opponent, tOpponent);
+            long tPlayer_ = applyTransposed(id ^ TRANSPOSED, player, tPlayer);
+            long tOpponent_ = applyTransposed(id ^ TRANSPOSED, opponent, tOpponent);
+            long diff = ((player_ ^ tPlayer_) | (opponent_ ^ tOpponent_)) & UPPER_TRIANGLE;
+            if (diff != 0 && (player_ & Bits.coordAt(Bits.countLeadingZeros(diff))) != 0) {
+                mask |= 1 << id;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 転置済みのビット列を使って変換する
+     * <p>
+     * 転置は反転と入れ替えられる(左右反転と上下反転は入れ替わる)ので、転置は最初の1回で済む
+     */
+    private static long applyTransposed(int id, long bits, long tBits) {
+        switch (id) {
+            case IDENTITY:
+                return bits;
+            case TRANSPOSED:
+                return tBits;
+            case FLIP_LT_RT:
+                return Bits.flipLtRt(bits);
+            case FLIP_LT_RT | TRANSPOSED:
+                return Bits.flipUpDn(tBits);
+            case FLIP_UP_DN:
+                return Bits.flipUpDn(bits);
+            case FLIP_UP_DN | TRANSPOSED:
+                return Bits.flipLtRt(tBits);
+            case FLIP:
+                return Bits.flip(bits);
+            case FLIP | TRANSPOSED:
+                return Bits.flip(tBits);
+            default:
+                throw new IllegalArgumentException("no match: " + id);
+        }
+    }
+}
@@ -1,133 +1,90 @@
 package com.github.koriel50000.prelude.rollout;
 
-import com.github.koriel50000.prelude.learning.BitFeature;
-import com.github.koriel50000.prelude.learning.CNNModel;
-import com.github.koriel50000.prelude.learning.PreludeFeature;
-import com.github.koriel50000.prelude.reversi.BitBoard;
-import com.github.koriel50000.prelude.reversi.Reversi;
 import com.github.koriel50000.prelude.util.Bits;
-import com.github.koriel50000.prelude.util.LineBuffer;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * プレイアウトによるモンテカルロ木探索(UCT)で着手を選ぶ
+ * <p>
+ * 制限時間に間に合わない場合に備えて、探索中の最善手(訪問回数が最大の着手)をgetLastCoordで返す。
+ * 探索のスレッド数は -Dprelude.mcts.threads で指定する(既定はプロセッサ数)。
+ * 複数スレッドで1つの木を共有する(TREE)か、スレッドごとの木をまとめる(ROOT)かは -Dprelude.mcts.mode で指定する。
+ */
 public class RolloutPolicy {
 
-    private BitBoard bitBoard;
-    private BitFeature bitFeature;
-    private Reversi reversi;
-    private PreludeFeature feature;
+    private static final long DEFAULT_TIME_LIMIT = 1000; // ms
+    private static final int THREADS = Integer.getInteger("prelude.mcts.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final UctSearch.Mode MODE =
+            UctSearch.Mode.valueOf(System.getProperty("prelude.mcts.mode", "TREE"));
 
-    private CNNModel model;
-    private Random random;
+    private UctSearch search;
+    private UctSearch singleSearch; // 勝敗探索と同時に動かすときの1スレッドの探索
+    private volatile UctSearch lastSearch;
 
     private volatile long lastCoord;
 
-    public RolloutPolicy(BitBoard bitBoard, BitFeature bitFeature,
-                         Reversi reversi, PreludeFeature feature, long seed) {
-        this.bitBoard = bitBoard;
-        this.bitFeature = bitFeature;
-        this.reversi = reversi;
-        this.feature = feature;
-        model = new CNNModel();
-        random = new Random(seed);
+    public RolloutPolicy(long seed) {
+        search = new UctSearch(seed, THREADS, MODE); // -Dprelude.mcts.threads, -Dprelude.mcts.mode(TREE, ROOT)
+        singleSearch = new UctSearch(seed);
+        lastSearch = search;
     }
 
     public void init() {
-        model.init();
     }
 
     public void destroy() {
-        model.destroy();
+        search.shutdown();
+        singleSearch.shutdown();
     }
 
     public long getLastCoord() {
         return lastCoord;
     }
 
-    public long rollout(long player, long opponent, long coords) {
-        // FIXME 仮にPreludeの実装を流用する
-        List<RolloutPolicy.Eval> evals = new ArrayList<>();
-        while (coords != 0) {
-            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
-
-            // Assert
-            int index = Bits.indexOf(coord);
-            long flipped = bitBoard.computeFlipped(player, opponent, index);
-            float[] buffer = bitFeature.getStateBuffer(player, opponent, flipped, coord, index);
-            float[] expectedBuffer = feature.getStateBuffer(reversi, Reversi.Coord.valueOf(coord));
-            try {
-                assertEquals(expectedBuffer, buffer, "buffer");
-            } catch (AssertionError e) {
-                LineBuffer errorBuffer = new LineBuffer();
-                reversi.printBoard(errorBuffer.offset(0));
-                Bits.printMatrix(errorBuffer.offset(30), coord);
-                errorBuffer.flush();
-                throw e;
-            }
-
-            float value = model.calculatePredicatedValue(buffer);
-            evals.add(new RolloutPolicy.Eval(coord, value));
-
-            coords ^= coord;  // 一番右のビットを0にする
-        }
-
-        // FIXME 制限時間に返せる着手を１つは用意する
-        long coord = optimumChoice(evals);
-        lastCoord = coord;
-        return coord;
+    /**
+     * 直前の探索のプレイアウトの回数を返す
+     */
+    public long getPlayouts() {
+        return lastSearch.playouts();
     }
 
-    private long optimumChoice(List<RolloutPolicy.Eval> evals) {
-        Collections.sort(evals, Collections.reverseOrder()); // 評価値で降順
-
-        List<Long> moves = new ArrayList<>();
-        float maximumValue = Float.NEGATIVE_INFINITY;
-        float delta = 0.001f; // FIXME 近い値を考慮
-        for (RolloutPolicy.Eval evel : evals) {
-            long move = evel.getMove();
-            float value = evel.getValue();
-            if (value + delta < maximumValue) {
-                break;
-            }
-            moves.add(move);
-            maximumValue = value;
-        }
-
-        return moves.get(random.nextInt(moves.size()));
+    /**
+     * 直前の探索の1秒あたりのプレイアウトの回数を返す
+     */
+    public long getPlayoutsPerSecond() {
+        return lastSearch.playoutsPerSecond();
     }
 
-    private void assertEquals(Object expected, Object actual, String message) {
-        assert expected.equals(actual) : String.format("'%s' not match. %s %s", message, expected, actual);
+    public long rollout(long player, long opponent, long coords) {
+        return rollout(player, opponent, coords, DEFAULT_TIME_LIMIT);
     }
 
-    private static class Eval implements Comparable<RolloutPolicy.Eval> {
-
-        private long move;
-        private float value;
-
-        Eval(long move, float value) {
-            this.move = move;
-            this.value = value;
-        }
-
-        long getMove() {
-            return move;
-        }
-
-        float getValue() {
-            return value;
-        }
+    /**
+     * 制限時間(ms)まで探索して、訪問回数が最大の着手を返す(中断された場合はそれまでの最善手)
+     */
+    public long rollout(long player, long opponent, long coords, long timeLimit) {
+        return rollout(search, player, opponent, coords, timeLimit);
+    }
 
-        void setValue(float value) {
-            this.value = value;
-        }
+    /**
+     * 1スレッドだけで制限時間(ms)まで探索して、訪問回数が最大の着手を返す
+     * <p>
+     * 勝敗探索が失敗したときの着手を、勝敗探索のスレッドからCPUを奪わずに用意する
+     */
+    public long rolloutSingle(long player, long opponent, long coords, long timeLimit) {
+        return rollout(singleSearch, player, opponent, coords, timeLimit);
+    }
 
-        @Override
-        public int compareTo(RolloutPolicy.Eval eval) {
-            return Float.compare(value, eval.value);
+    private long rollout(UctSearch search, long player, long opponent, long coords, long timeLimit) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+        // 打ち切られた前の探索が戻るのを待ってから始める(前の局面の着手でlastCoordを上書きさせない)
+        synchronized (this) {
+            // 探索が1回も終わらないうちに時間切れになっても返せる着手を用意する
+            lastCoord = Bits.getRightmostBit(coords);
+            lastSearch = search;
+            return search.search(player, opponent, coords, deadline, coord -> lastCoord = coord);
         }
     }
 }
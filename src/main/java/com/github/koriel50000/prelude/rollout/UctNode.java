@@ -0,0 +1,170 @@
+package com.github.koriel50000.prelude.rollout;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * UCTの探索木のノード(複数スレッドで共有する)
+ * <p>
+ * 局面は手番側から見た自石・相手石で持ち、勝ち点(勝ち2・引き分け1・負け0)は
+ * このノードに着手した側(親の手番側)から見た値で数える。
+ * 訪問回数と勝ち点は1つのlongにまとめてロックなしで更新し、子ノードの展開はCASで1スレッドだけが受け持つ。
+ * <p>
+ * 探索中のスレッドは、たどったノードに仮の負け(virtual loss)を加えて、他のスレッドが別の枝を選ぶようにする。
+ */
+final class UctNode {
+
+    static final int VIRTUAL_LOSS = 1; // たどるときに加える仮の訪問回数(勝ち点0)
+
+    private static final AtomicLongFieldUpdater<UctNode> STATS =
+            AtomicLongFieldUpdater.newUpdater(UctNode.class, "stats");
+    private static final AtomicIntegerFieldUpdater<UctNode> EXPANDED =
+            AtomicIntegerFieldUpdater.newUpdater(UctNode.class, "expanded");
+
+    final long player;
+    final long opponent;
+    final long coord; // 親からの着手(パスは0)
+
+    private final long moves; // 展開する着手(パスだけなら0)
+    private final int moveCount; // 子ノードの数(終局なら0)
+    private final AtomicReferenceArray<UctNode> children;
+
+    private volatile int expanded; // 展開を受け持った子ノードの数
+    private volatile long stats; // 訪問回数(上位32ビット)・勝ち点の合計(下位32ビット)
+
+    UctNode(long player, long opponent, long coord, long candidates) {
+        this.player = player;
+        this.opponent = opponent;
+        this.coord = coord;
+        moves = BitBoard.availableMoves(player, opponent) & candidates;
+        if (moves != 0) {
+            moveCount = Bits.populationCount(moves);
+        } else {
+            moveCount = (BitBoard.availableMoves(opponent, player) != 0) ? 1 : 0;
+        }
+        children = new AtomicReferenceArray<>(moveCount);
+    }
+
+    UctNode(long player, long opponent, long coord) {
+        this(player, opponent, coord, -1L);
+    }
+
+    int visits() {
+        return (int) (stats >>> 32);
+    }
+
+    int points() {
+        return (int) stats;
+    }
+
+    int childCount() {
+        return Math.min(expanded, moveCount);
+    }
+
+    /**
+     * 子ノードを返す(展開を受け持ったスレッドがまだ登録していなければnull)
+     */
+    UctNode child(int i) {
+        return children.get(i);
+    }
+
+    /**
+     * 両者とも着手できない(終局)ならばtrue
+     */
+    boolean isTerminal() {
+        return moveCount == 0;
+    }
+
+    /**
+     * すべての子ノードの展開を受け持ったならばtrue
+     */
+    boolean isExpanded() {
+        return expanded >= moveCount;
+    }
+
+    /**
+     * まだ展開していない着手の1つを子ノードにして返す(他のスレッドがすべて受け持った後ならnull)
+     */
+    UctNode expand() {
+        int i;
+        do {
+            i = expanded;
+            if (i >= moveCount) {
+                return null;
+            }
+        } while (!EXPANDED.compareAndSet(this, i, i + 1));
+
+        UctNode child;
+        if (moves == 0) {
+            child = new UctNode(opponent, player, 0);
+        } else {
+            long coord = Bits.selectBit(moves, i);
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            child = new UctNode(opponent ^ flipped, player | coord | flipped, coord);
+        }
+        children.compareAndSet(i, null, child);
+        return child;
+    }
+
+    /**
+     * UCB1の値が最大の子ノードを返す(登録済みの子ノードがなければnull)
+     * <p>
+     * まだ訪問していない子ノードを優先する
+     */
+    UctNode select(double exploration) {
+        double logVisits = Math.log(Math.max(visits(), 1));
+        UctNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < moveCount; i++) {
+            UctNode child = children.get(i);
+            if (child == null) {
+                continue;
+            }
+            long stats = child.stats;
+            int visits = (int) (stats >>> 32);
+            if (visits == 0) {
+                return child;
+            }
+            double value = (int) stats / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+            if (value > bestValue) {
+                best = child;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 訪問回数が最大の子ノードを返す(登録済みの子ノードがなければnull)
+     */
+    UctNode mostVisited() {
+        UctNode best = null;
+        int bestVisits = -1;
+        for (int i = 0; i < moveCount; i++) {
+            UctNode child = children.get(i);
+            if (child != null && child.visits() > bestVisits) {
+                best = child;
+                bestVisits = child.visits();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * たどるときに仮の負けを加える
+     */
+    void addVirtualLoss() {
+        STATS.getAndAdd(this, (long) VIRTUAL_LOSS << 32);
+    }
+
+    /**
+     * 仮の負けを勝ち点に置き換える(訪問回数は合わせて1増える)
+     */
+    void update(int points) {
+        STATS.getAndAdd(this, points - ((long) (VIRTUAL_LOSS - 1) << 32));
+    }
+}
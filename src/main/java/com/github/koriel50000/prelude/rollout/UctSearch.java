@@ -0,0 +1,257 @@
+package com.github.koriel50000.prelude.rollout;
+
+import com.github.koriel50000.prelude.reversi.Playout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+/**
+ * UCT(UCB1で選択するモンテカルロ木探索)で着手を選ぶ
+ * <p>
+ * 木をUCB1でたどって展開したノードから終局までランダムに打ち(プレイアウト)、勝ち点を根まで戻す。
+ * 時間切れまでこれを繰り返して、訪問回数が最大の着手を返す。
+ * 複数スレッドでは、すべてのスレッドが1つの木を共有して探索する(TREE: tree parallelization)か、
+ * スレッドごとに別の乱数で別の木を探索して、根の子ノードの訪問回数を着手ごとに合計する(ROOT: root parallelization)。
+ * ROOTは途中の最善手を知らせるときと時間切れのときだけ他の木を読むので、スレッド間でキャッシュラインを取り合わない。
+ */
+final class UctSearch {
+
+    enum Mode {
+        TREE, ROOT
+    }
+
+    static final double EXPLORATION = 1.0; // UCB1の探索の重み(勝率は0〜1)
+
+    private static final int CHECK_INTERVAL = 64; // 時間切れを確かめるプレイアウトの間隔
+    private static final int REPORT_INTERVAL = 1024; // 途中の最善手を知らせるプレイアウトの間隔
+    private static final int MAX_PATH = 128; // パスを含む手数の上限
+
+    private final Mode mode;
+    private final Worker[] workers;
+    private final ExecutorService executor; // 1スレッドならnull
+
+    private volatile boolean stopped;
+    private UctNode[] roots; // TREEなら1つ
+    private long playouts;
+    private long time; // ns
+
+    /**
+     * 探索するスレッドごとの状態
+     */
+    private final class Worker {
+
+        private final Playout playout;
+        private final UctNode[] path = new UctNode[MAX_PATH];
+
+        Worker(long seed) {
+            playout = new Playout(seed);
+        }
+
+        /**
+         * 時間切れか打ち切りまで探索して、プレイアウトの回数を返す
+         * <p>
+         * reportを渡したスレッド(探索を呼び出したスレッド)は、中断されたら他のスレッドも止めて、
+         * すべての木をまとめた途中の最善手を知らせる
+         */
+        long run(UctNode root, long deadline, LongConsumer report) {
+            long count = 0;
+            while (true) {
+                iterate(root);
+                count++;
+                if (count % CHECK_INTERVAL == 0) {
+                    if (stopped || System.nanoTime() - deadline >= 0) {
+                        break;
+                    }
+                    if (report != null) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            break;
+                        }
+                        if (count % REPORT_INTERVAL == 0) {
+                            report.accept(mostVisited(roots));
+                        }
+                    }
+                }
+            }
+            stopped = true;
+            return count;
+        }
+
+        /**
+         * 選択・展開・プレイアウト・逆伝播を1回行う
+         */
+        private void iterate(UctNode root) {
+            UctNode node = root;
+            int depth = 0;
+            node.addVirtualLoss();
+            path[depth++] = node;
+            while (node.isExpanded() && !node.isTerminal()) {
+                UctNode child = node.select(EXPLORATION);
+                if (child == null) {
+                    break; // 他のスレッドが子ノードを登録するまで、このノードからプレイアウトする
+                }
+                node = child;
+                node.addVirtualLoss();
+                path[depth++] = node;
+            }
+            if (!node.isTerminal()) {
+                UctNode child = node.expand();
+                if (child != null) {
+                    node = child;
+                    node.addVirtualLoss();
+                    path[depth++] = node;
+                }
+            }
+
+            // 葉の手番側から見た勝ち点(勝ち2・引き分け1・負け0)
+            int points = Integer.signum(playout.play(node.player, node.opponent)) + 1;
+            for (int i = depth - 1; i >= 0; i--) {
+                points = 2 - points; // ノードに着手した側から見た勝ち点
+                path[i].update(points);
+            }
+        }
+    }
+
+    UctSearch(long seed) {
+        this(seed, 1, Mode.TREE);
+    }
+
+    UctSearch(long seed, int threads, Mode mode) {
+        this.mode = mode;
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(seed + i);
+        }
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "uct-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executor = null;
+        }
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 直前の探索の木の根を返す(ROOTではスレッドごと)
+     */
+    UctNode[] roots() {
+        return roots;
+    }
+
+    /**
+     * 直前の探索のプレイアウトの回数を返す
+     */
+    long playouts() {
+        return playouts;
+    }
+
+    /**
+     * 直前の探索の1秒あたりのプレイアウトの回数を返す
+     */
+    long playoutsPerSecond() {
+        return playouts * 1_000_000_000L / Math.max(time, 1);
+    }
+
+    /**
+     * 候補の着手から、訪問回数が最大の着手を返す
+     * <p>
+     * deadline(System.nanoTime)を過ぎるか、呼び出したスレッドが中断されるまで探索する。
+     * 途中の最善手はREPORT_INTERVALごとにreportに渡す。同じインスタンスの探索は同時には1つだけ動く
+     */
+    long search(long player, long opponent, long candidates, long deadline, LongConsumer report) {
+        // 打ち切られた前の探索が戻るのを待ってから始める(スレッドごとの状態と停止のフラグを共有するため)
+        synchronized (this) {
+            long start = System.nanoTime();
+            UctNode[] roots = new UctNode[(mode == Mode.ROOT) ? workers.length : 1];
+            for (int i = 0; i < roots.length; i++) {
+                roots[i] = new UctNode(player, opponent, 0, candidates);
+            }
+            this.roots = roots;
+            stopped = false;
+
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 1; i < workers.length; i++) {
+                Worker worker = workers[i];
+                UctNode root = roots[i % roots.length];
+                futures.add(executor.submit(() -> worker.run(root, deadline, null)));
+            }
+            long count = workers[0].run(roots[0], deadline, report);
+            count += join(futures);
+            playouts = count;
+            time = System.nanoTime() - start;
+
+            long coord = mostVisited(roots);
+            report.accept(coord);
+            return coord;
+        }
+    }
+
+    /**
+     * 根の子ノードの訪問回数を着手ごとに合計して、最大の着手を返す
+     * <p>
+     * 同じ局面・候補の根は、同じ順に子ノードを展開する
+     */
+    private static long mostVisited(UctNode[] roots) {
+        if (roots.length == 1) {
+            return roots[0].mostVisited().coord;
+        }
+        long coord = 0;
+        long bestVisits = -1;
+        for (int i = 0; ; i++) {
+            long visits = 0;
+            UctNode child = null;
+            for (UctNode root : roots) {
+                if (i < root.childCount() && root.child(i) != null) {
+                    child = root.child(i);
+                    visits += child.visits();
+                }
+            }
+            if (child == null) {
+                break;
+            }
+            if (visits > bestVisits) {
+                coord = child.coord;
+                bestVisits = visits;
+            }
+        }
+        return coord;
+    }
+
+    /**
+     * 止めた他のスレッドが戻るのを待って、プレイアウトの回数の合計を返す
+     * <p>
+     * 待つ間に中断されても待ち続けて、戻る前に中断の状態を元に戻す
+     */
+    private static long join(List<Future<Long>> futures) {
+        long count = 0;
+        boolean interrupted = false;
+        for (Future<Long> future : futures) {
+            while (true) {
+                try {
+                    count += future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return count;
+    }
+}
@@ -4,27 +4,15 @@ import org.apache.commons.lang3.StringUtils;
 
 /**
  * Bit Twiddling
+ * <p>
+ * 基本演算は起動時に選択した{@link BitsBackend}に委譲する
  *
  * @see <a href="http://www012.upp.so-net.ne.jp/eshibata/pdfs/tiger.pdf"/>
  */
 public final class Bits {
 
-    private static int[] indexTable;
-
-    /**
-     * 最上位ビットのインデックスを0として、ビット位置のハッシュテーブルを作成する
-     *
-     * @see <a href="https://koonies.hatenadiary.org/entry/20090708/nlz3#f-0bb3099a"/>
-     */
-    static {
-        indexTable = new int[64];
-        long onehot = 0x8000000000000000L;
-        for (int index = 0; index < 64; index++) {
-            int hash = (int) ((onehot * 0x03F566ED27179461L) >>> 58);
-            indexTable[hash] = index;
-            onehot >>>= 1;
-        }
-    }
+    private static final BitsBackend backend =
+            BitsBackend.of(System.getProperty("prelude.bits", BitsBackend.INTRINSIC));
 
     /**
      * 立っている("1"の)ビットの数を返す
@@ -32,13 +20,7 @@ public final class Bits {
      * @see Long#bitCount(long)
      */
     public static int populationCount(long bits) {
-        bits = (bits & 0x5555555555555555L) + ((bits >>> 1) & 0x5555555555555555L);
-        bits = (bits & 0x3333333333333333L) + ((bits >>> 2) & 0x3333333333333333L);
-        bits = (bits & 0x0f0f0f0f0f0f0f0fL) + ((bits >>> 4) & 0x0f0f0f0f0f0f0f0fL);
-        bits = (bits & 0x00ff00ff00ff00ffL) + ((bits >>> 8) & 0x00ff00ff00ff00ffL);
-        bits = (bits & 0x0000ffff0000ffffL) + ((bits >>> 16) & 0x0000ffff0000ffffL);
-        bits = (bits & 0x00000000ffffffffL) + ((bits >>> 32) & 0x00000000ffffffffL);
-        return (int) bits;
+        return backend.populationCount(bits);
     }
 
     /**
@@ -47,13 +29,7 @@ public final class Bits {
      * @see Long#reverse(long)
      */
     public static long reverse(long bits) {
-        bits = bits >>> 32 | bits << 32;
-        bits = (bits >>> 16) & 0x0000ffff0000ffffL | (bits & 0x0000ffff0000ffffL) << 16;
-        bits = (bits >>> 8) & 0x00ff00ff00ff00ffL | (bits & 0x00ff00ff00ff00ffL) << 8;
-        bits = (bits >>> 4) & 0x0f0f0f0f0f0f0f0fL | (bits & 0x0f0f0f0f0f0f0f0fL) << 4;
-        bits = (bits >>> 2) & 0x3333333333333333L | (bits & 0x3333333333333333L) << 2;
-        bits = (bits >>> 1) & 0x5555555555555555L | (bits & 0x5555555555555555L) << 1;
-        return bits;
+        return backend.reverse(bits);
     }
 
     /**
@@ -74,6 +50,23 @@ public final class Bits {
         return bits & -bits;
     }
 
+    /**
+     * 右端からn番目(0始まり)の立っている("1"の)ビット列を返す
+     * <p>
+     * 下位の半分のビットの数と比べて、nを含む側に32・16・8・4・2・1ビットずつ絞り込む(nは立っているビットの数未満)
+     */
+    public static long selectBit(long bits, int n) {
+        int shift = 0;
+        for (int width = 32; width > 0; width >>>= 1) {
+            int count = populationCount((bits >>> shift) & ((1L << width) - 1));
+            if (n >= count) {
+                n -= count;
+                shift += width;
+            }
+        }
+        return 1L << shift;
+    }
+
     /**
      * シード(seed)の前後の連続した"1"のビット列を返す
      */
@@ -102,13 +95,7 @@ public final class Bits {
      * @see Long#numberOfLeadingZeros(long)
      */
     public static int countLeadingZeros(long bits) {
-        bits |= bits >>> 1;
-        bits |= bits >>> 2;
-        bits |= bits >>> 4;
-        bits |= bits >>> 8;
-        bits |= bits >>> 16;
-        bits |= bits >>> 32;
-        return populationCount(~bits);
+        return backend.countLeadingZeros(bits);
     }
 
     /**
@@ -117,20 +104,14 @@ public final class Bits {
      * @see Long#numberOfTrailingZeros(long)
      */
     public static int countTrailingZeros(long bits) {
-        if (bits == 0) {
-            return 64;
-        }
-        long bit = getRightmostBit(bits);
-        int hash = (int) ((bit * 0x03F566ED27179461L) >>> 58);
-        return 63 - indexTable[hash];
+        return backend.countTrailingZeros(bits);
     }
 
     /**
      * one-hotビット列のビット位置を返す
      */
     public static int indexOf(long coord) {
-        int hash = (int) ((coord * 0x03F566ED27179461L) >>> 58);
-        return indexTable[hash];
+        return backend.indexOf(coord);
     }
 
     /**
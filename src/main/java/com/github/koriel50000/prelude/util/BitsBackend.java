@@ -0,0 +1,48 @@
+package com.github.koriel50000.prelude.util;
+
+/**
+ * Bitsの基本演算の実装
+ * <p>
+ * 起動時に -Dprelude.bits=intrinsic|portable で選択する
+ */
+public interface BitsBackend {
+
+    String INTRINSIC = "intrinsic";
+    String PORTABLE = "portable";
+
+    /**
+     * 立っている("1"の)ビットの数を返す
+     */
+    int populationCount(long bits);
+
+    /**
+     * ビット列の並び順を反転して返す
+     */
+    long reverse(long bits);
+
+    /**
+     * 最上位ビットから連続する"0"のビットの数を返す
+     */
+    int countLeadingZeros(long bits);
+
+    /**
+     * 最下位ビットから連続する"0"のビットの数を返す
+     */
+    int countTrailingZeros(long bits);
+
+    /**
+     * one-hotビット列のビット位置を返す(最上位ビットを0とする)
+     */
+    int indexOf(long coord);
+
+    static BitsBackend of(String name) {
+        switch (name) {
+            case INTRINSIC:
+                return new IntrinsicBitsBackend();
+            case PORTABLE:
+                return new PortableBitsBackend();
+            default:
+                throw new IllegalArgumentException("no match: " + name);
+        }
+    }
+}
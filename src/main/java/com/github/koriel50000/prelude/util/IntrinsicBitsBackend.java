@@ -0,0 +1,32 @@
+package com.github.koriel50000.prelude.util;
+
+/**
+ * JVMの組み込み関数(intrinsics)による実装
+ */
+final class IntrinsicBitsBackend implements BitsBackend {
+
+    @Override
+    public int populationCount(long bits) {
+        return Long.bitCount(bits);
+    }
+
+    @Override
+    public long reverse(long bits) {
+        return Long.reverse(bits);
+    }
+
+    @Override
+    public int countLeadingZeros(long bits) {
+        return Long.numberOfLeadingZeros(bits);
+    }
+
+    @Override
+    public int countTrailingZeros(long bits) {
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    @Override
+    public int indexOf(long coord) {
+        return Long.numberOfLeadingZeros(coord);
+    }
+}
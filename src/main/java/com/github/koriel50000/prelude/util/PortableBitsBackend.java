@@ -0,0 +1,75 @@
+package com.github.koriel50000.prelude.util;
+
+/**
+ * ビット演算のみによる実装
+ *
+ * @see <a href="http://www012.upp.so-net.ne.jp/eshibata/pdfs/tiger.pdf"/>
+ */
+final class PortableBitsBackend implements BitsBackend {
+
+    private static int[] indexTable;
+
+    /**
+     * 最上位ビットのインデックスを0として、ビット位置のハッシュテーブルを作成する
+     *
+     * @see <a href="https://koonies.hatenadiary.org/entry/20090708/nlz3#f-0bb3099a"/>
+     */
+    static {
+        indexTable = new int[64];
+        long onehot = 0x8000000000000000L;
+        for (int index = 0; index < 64; index++) {
+            int hash = (int) ((onehot * 0x03F566ED27179461L) >>> 58);
+            indexTable[hash] = index;
+            onehot >>>= 1;
+        }
+    }
+
+    @Override
+    public int populationCount(long bits) {
+        bits = (bits & 0x5555555555555555L) + ((bits >>> 1) & 0x5555555555555555L);
+        bits = (bits & 0x3333333333333333L) + ((bits >>> 2) & 0x3333333333333333L);
+        bits = (bits & 0x0f0f0f0f0f0f0f0fL) + ((bits >>> 4) & 0x0f0f0f0f0f0f0f0fL);
+        bits = (bits & 0x00ff00ff00ff00ffL) + ((bits >>> 8) & 0x00ff00ff00ff00ffL);
+        bits = (bits & 0x0000ffff0000ffffL) + ((bits >>> 16) & 0x0000ffff0000ffffL);
+        bits = (bits & 0x00000000ffffffffL) + ((bits >>> 32) & 0x00000000ffffffffL);
+        return (int) bits;
+    }
+
+    @Override
+    public long reverse(long bits) {
+        bits = bits >>> 32 | bits << 32;
+        bits = (bits >>> 16) & 0x0000ffff0000ffffL | (bits & 0x0000ffff0000ffffL) << 16;
+        bits = (bits >>> 8) & 0x00ff00ff00ff00ffL | (bits & 0x00ff00ff00ff00ffL) << 8;
+        bits = (bits >>> 4) & 0x0f0f0f0f0f0f0f0fL | (bits & 0x0f0f0f0f0f0f0f0fL) << 4;
+        bits = (bits >>> 2) & 0x3333333333333333L | (bits & 0x3333333333333333L) << 2;
+        bits = (bits >>> 1) & 0x5555555555555555L | (bits & 0x5555555555555555L) << 1;
+        return bits;
+    }
+
+    @Override
+    public int countLeadingZeros(long bits) {
+        bits |= bits >>> 1;
+        bits |= bits >>> 2;
+        bits |= bits >>> 4;
+        bits |= bits >>> 8;
+        bits |= bits >>> 16;
+        bits |= bits >>> 32;
+        return populationCount(~bits);
+    }
+
+    @Override
+    public int countTrailingZeros(long bits) {
+        if (bits == 0) {
+            return 64;
+        }
+        long bit = bits & -bits;
+        int hash = (int) ((bit * 0x03F566ED27179461L) >>> 58);
+        return 63 - indexTable[hash];
+    }
+
+    @Override
+    public int indexOf(long coord) {
+        int hash = (int) ((coord * 0x03F566ED27179461L) >>> 58);
+        return indexTable[hash];
+    }
+}
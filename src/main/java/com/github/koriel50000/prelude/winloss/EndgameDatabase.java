@@ -0,0 +1,288 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BoardHash;
+import com.github.koriel50000.prelude.reversi.Symmetry;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 完全読みの結果(石差と最善手)をディスクに残して、対局をまたいで使い回す
+ * <p>
+ * 局面は8つの対称変換の代表局面(Symmetry.canonicalize)をキーにする。ファイルは2つあり、
+ * 整列済みのファイル(SORTED_FILE)はメモリマップして二分探索で引き、
+ * 探索の結果は追記用のファイル(LOG_FILE)に追記して、開いている間はメモリ上の表からも引く。
+ * 追記したファイルは、開いていない間にcompactで整列済みのファイルにまとめる。
+ * <p>
+ * レコードは 自石(8) 相手石(8) 石差(1) 最善手の位置(1) の18バイトで、
+ * 整列済みのファイルは(自石, 相手石)の符号なしの昇順。
+ */
+public final class EndgameDatabase implements Closeable {
+
+    static final String SORTED_FILE = "endgame.db";
+    static final String LOG_FILE = "endgame.log";
+
+    private static final int RECORD_BYTES = 18;
+    private static final int VALID = 1 << 16; // 0と区別するため
+
+    private final int maxEmpties;
+    private final MappedByteBuffer sorted; // 整列済みのファイルがなければnull
+    private final int sortedCount;
+    private final FileChannel log;
+    private final Map<Long, Record> appended = new ConcurrentHashMap<>(); // 代表局面のハッシュ値ごと
+
+    /**
+     * 代表局面の結果
+     */
+    private static final class Record {
+
+        final long player;
+        final long opponent;
+        final int score;
+        final int index;
+
+        Record(long player, long opponent, int score, int index) {
+            this.player = player;
+            this.opponent = opponent;
+            this.score = score;
+            this.index = index;
+        }
+
+        static Record read(ByteBuffer buffer, int offset) {
+            return new Record(buffer.getLong(offset), buffer.getLong(offset + 8),
+                    buffer.get(offset + 16), buffer.get(offset + 17) & 0xff);
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.putLong(player).putLong(opponent).put((byte) score).put((byte) index);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(player);
+            out.writeLong(opponent);
+            out.writeByte(score);
+            out.writeByte(index);
+        }
+    }
+
+    private static final Comparator<Record> ORDER = (r1, r2) -> {
+        int c = Long.compareUnsigned(r1.player, r2.player);
+        return (c != 0) ? c : Long.compareUnsigned(r1.opponent, r2.opponent);
+    };
+
+    /**
+     * ディレクトリのファイルを開く(なければ作る)
+     * <p>
+     * 空白がmaxEmptiesより多い局面の結果は登録しない
+     */
+    public EndgameDatabase(Path directory, int maxEmpties) {
+        this.maxEmpties = maxEmpties;
+        try {
+            Files.createDirectories(directory);
+            Path sortedPath = directory.resolve(SORTED_FILE);
+            if (Files.exists(sortedPath)) {
+                try (FileChannel channel = FileChannel.open(sortedPath, StandardOpenOption.READ)) {
+                    sorted = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    sortedCount = (int) (channel.size() / RECORD_BYTES);
+                }
+            } else {
+                sorted = null;
+                sortedCount = 0;
+            }
+
+            Path logPath = directory.resolve(LOG_FILE);
+            for (Record record : readLog(logPath)) {
+                appended.put(BoardHash.hash(record.player, record.opponent), record);
+            }
+            log = FileChannel.open(logPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            // 書きかけのレコードは切り捨てて、追記の位置をレコードの境界にそろえる
+            long size = log.size();
+            log.truncate(size - size % RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 登録されている結果を返す(なければ0)
+     */
+    public int probe(long player, long opponent) {
+        int id = Symmetry.canonicalize(player, opponent);
+        long player_ = Symmetry.apply(id, player);
+        long opponent_ = Symmetry.apply(id, opponent);
+
+        Record record = appended.get(BoardHash.hash(player_, opponent_));
+        if (record == null || record.player != player_ || record.opponent != opponent_) {
+            record = search(player_, opponent_);
+        }
+        if (record == null) {
+            return 0;
+        }
+        // 代表局面の最善手を元の向きに戻す
+        int index = Bits.indexOf(Symmetry.invert(id, Bits.coordAt(record.index)));
+        return VALID | (index << 8) | (record.score & 0xff);
+    }
+
+    /**
+     * 結果の石差を返す
+     */
+    public static int score(int entry) {
+        return (byte) entry;
+    }
+
+    /**
+     * 結果の最善手を返す
+     */
+    public static long move(int entry) {
+        return Bits.coordAt((entry >>> 8) & 0xff);
+    }
+
+    /**
+     * 局面の石差と最善手を登録する(追記用のファイルに追記する)
+     */
+    public synchronized void store(long player, long opponent, int score, long move) {
+        if (Bits.populationCount(~(player | opponent)) > maxEmpties || probe(player, opponent) != 0) {
+            return;
+        }
+        int id = Symmetry.canonicalize(player, opponent);
+        long player_ = Symmetry.apply(id, player);
+        long opponent_ = Symmetry.apply(id, opponent);
+        Record record = new Record(player_, opponent_, score, Bits.indexOf(Symmetry.apply(id, move)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        record.write(buffer);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        appended.put(BoardHash.hash(player_, opponent_), record);
+    }
+
+    /**
+     * 登録されている局面の数を返す(compactの前は重複を含むことがある)
+     */
+    public int size() {
+        return sortedCount + appended.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * 整列済みのファイルを二分探索する
+     */
+    private Record search(long player, long opponent) {
+        int low = 0;
+        int high = sortedCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = mid * RECORD_BYTES;
+            int c = Long.compareUnsigned(sorted.getLong(offset), player);
+            if (c == 0) {
+                c = Long.compareUnsigned(sorted.getLong(offset + 8), opponent);
+            }
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return Record.read(sorted, offset);
+            }
+        }
+        return null;
+    }
+
+    private static List<Record> readLog(Path logPath) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.exists(logPath)) {
+            return records;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(logPath));
+        // 書きかけのレコードは読まない
+        for (int offset = 0; offset + RECORD_BYTES <= buffer.limit(); offset += RECORD_BYTES) {
+            records.add(Record.read(buffer, offset));
+        }
+        return records;
+    }
+
+    /**
+     * 追記用のファイルを整列済みのファイルにまとめる(開いていない間に実行する)
+     * <p>
+     * 同じ局面が両方にあれば、追記用のファイルの後のレコードを残す
+     */
+    public static void compact(Path directory) throws IOException {
+        Path sortedPath = directory.resolve(SORTED_FILE);
+        Path logPath = directory.resolve(LOG_FILE);
+        List<Record> records = readLog(logPath);
+        records.sort(ORDER); // 安定なソートなので、同じ局面は追記した順に並ぶ
+        List<Record> logRecords = new ArrayList<>();
+        for (Record record : records) {
+            int last = logRecords.size() - 1;
+            if (last >= 0 && ORDER.compare(logRecords.get(last), record) == 0) {
+                logRecords.set(last, record);
+            } else {
+                logRecords.add(record);
+            }
+        }
+
+        List<Record> sortedRecords = new ArrayList<>();
+        if (Files.exists(sortedPath)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sortedPath));
+            for (int offset = 0; offset + RECORD_BYTES <= buffer.limit(); offset += RECORD_BYTES) {
+                sortedRecords.add(Record.read(buffer, offset));
+            }
+        }
+
+        Path tempPath = directory.resolve(SORTED_FILE + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tempPath);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            int i = 0;
+            int j = 0;
+            while (i < sortedRecords.size() || j < logRecords.size()) {
+                Record record;
+                if (j == logRecords.size()) {
+                    record = sortedRecords.get(i++);
+                } else if (i == sortedRecords.size()) {
+                    record = logRecords.get(j++);
+                } else {
+                    int c = ORDER.compare(sortedRecords.get(i), logRecords.get(j));
+                    if (c < 0) {
+                        record = sortedRecords.get(i++);
+                    } else {
+                        if (c == 0) {
+                            i++;
+                        }
+                        record = logRecords.get(j++);
+                    }
+                }
+                record.write(out);
+            }
+        }
+        Files.move(tempPath, sortedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logPath);
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.MoveList;
+
+/**
+ * 窓(alpha, beta)を指定して終局時の石差を求める完全読み
+ * <p>
+ * 窓の使い方で、求める結果と探索量が変わる
+ * <ul>
+ * <li>EXACT: 全幅の窓で石差を求める</li>
+ * <li>MTDF: 幅1の窓(null-window)の探索を繰り返して石差を求める(置換表を使い回す)</li>
+ * <li>WIN_LOSS: 0と-1の周りのnull-windowで勝ち・引き分け・負けだけを求める</li>
+ * </ul>
+ * 探索はSearchControlの条件で打ち切り、bestMoveはそれまでに探索を終えた着手の中の最善手を返す。
+ */
+public interface EndgameSearch {
+
+    enum Mode {
+        EXACT,
+        MTDF,
+        WIN_LOSS
+    }
+
+    /**
+     * 石差を返す
+     * <p>
+     * 石差がalpha以下ならalpha以下の値(上界)を、beta以上ならbeta以上の値(下界)を返す
+     */
+    int solve(long player, long opponent, int alpha, int beta);
+
+    /**
+     * candidatesの中で石差が最大になる着手を返す(着手可能な候補がなければ0)
+     */
+    long bestMove(long player, long opponent, long candidates);
+
+    /**
+     * 探索を打ち切る条件と途中結果を設定する
+     */
+    void setControl(SearchControl control);
+
+    /**
+     * 探索を打ち切る条件と途中結果を返す
+     */
+    SearchControl control();
+
+    /**
+     * 指定された方法で石差を返す(WIN_LOSSは勝ちなら1・引き分けなら0・負けなら-1)
+     */
+    default int solve(long player, long opponent, Mode mode) {
+        switch (mode) {
+            case EXACT:
+                return solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            case MTDF:
+                return solveMtdf(player, opponent, 0);
+            case WIN_LOSS:
+                return solveWinLoss(player, opponent);
+            default:
+                throw new IllegalArgumentException("no match: " + mode);
+        }
+    }
+
+    /**
+     * 予想した石差(guess)から、null-windowの探索で上界と下界を狭めて石差を求める(MTD(f))
+     */
+    default int solveMtdf(long player, long opponent, int guess) {
+        int value = guess;
+        int lower = -EndgameSolver.SCORE_MAX;
+        int upper = EndgameSolver.SCORE_MAX;
+        while (lower < upper) {
+            int beta = (value == lower) ? value + 1 : value;
+            value = solve(player, opponent, beta - 1, beta);
+            if (value < beta) {
+                upper = value;
+            } else {
+                lower = value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 勝ちなら1・引き分けなら0・負けなら-1を返す
+     */
+    default int solveWinLoss(long player, long opponent) {
+        if (solve(player, opponent, 0, 1) >= 1) {
+            return 1;
+        }
+        return (solve(player, opponent, -1, 0) >= 0) ? 0 : -1;
+    }
+
+    /**
+     * 指定された方法でcandidatesの中の最善手を返す(着手可能な候補がなければ0)
+     * <p>
+     * WIN_LOSSは勝ちになる着手、なければ引き分けになる着手を返す。
+     * 打ち切られた場合は、それまでに探索を終えた着手の中の最善手を返す
+     */
+    default long bestMove(long player, long opponent, long candidates, Mode mode) {
+        if (mode == Mode.EXACT) {
+            return bestMove(player, opponent, candidates);
+        }
+
+        MoveList moves = new MoveList();
+        int size = BitBoard.generateMoves(player, opponent, moves);
+        moves.sortFastestFirst();
+
+        SearchControl control = control();
+        long optimumMove = 0;
+        int maxValue = -EndgameSolver.SCORE_MAX - 1;
+        try {
+            for (int i = 0; i < size; i++) {
+                long coord = moves.coord(i);
+                if ((candidates & coord) == 0) { // 候補に含まれない着手は除く
+                    continue;
+                }
+                long flipped = moves.flipped(i);
+                long player_ = opponent ^ flipped;
+                long opponent_ = player | coord | flipped;
+
+                if (mode == Mode.WIN_LOSS) {
+                    // 勝ちになる着手があれば、残りは調べない
+                    int value = -solveWinLoss(player_, opponent_);
+                    if (value > maxValue) {
+                        maxValue = value;
+                        optimumMove = coord;
+                        control.update(coord, value);
+                        if (value > 0) {
+                            break;
+                        }
+                    }
+                } else {
+                    // 最善手を上回るかをnull-windowで調べてから、上回る着手だけ石差を求める
+                    if (optimumMove == 0) {
+                        maxValue = -solveMtdf(player_, opponent_, 0);
+                        optimumMove = coord;
+                        control.update(coord, maxValue);
+                    } else if (-solve(player_, opponent_, -maxValue - 1, -maxValue) > maxValue) {
+                        maxValue = -solveMtdf(player_, opponent_, -maxValue - 1);
+                        optimumMove = coord;
+                        control.update(coord, maxValue);
+                    }
+                }
+            }
+        } catch (SearchAbortedException e) {
+            return control.bestMove();
+        }
+        return optimumMove;
+    }
+}
@@ -0,0 +1,461 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.learning.BitFeature;
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.BoardHash;
+import com.github.koriel50000.prelude.reversi.LastFlip;
+import com.github.koriel50000.prelude.reversi.MoveList;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.reversi.Stability;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 終盤の完全読み(手番側から見た終局時の石差)
+ * <p>
+ * fail-softのalpha-beta(negamax)で探索する。
+ * 空白が多い局面では着手後の相手の着手可能数が少ない順(fastest-first)に、
+ * 空白が少ない局面では空白が奇数の領域(BitFeature.oddArea)の着手を先に調べ(偶数理論)、
+ * 空白が4つ以下の局面では領域の代わりに盤面を4分割した象限(quadrant)で判定する。
+ * 空白が4つ以下の局面は空白の数ごとの処理(solve4〜solve1)で調べ、最後の1手は反転数だけを表引きで数える。
+ * alphaが大きい局面では、相手の確定石から求めた石差の上界がalpha以下なら探索を省く(確定石による枝刈り)。
+ * 深さごとにMoveListを持つため、1つのインスタンスは1スレッドで使う。
+ * 置換表を渡すと、空白がTABLE_EMPTIES以上の局面の結果を登録して、次からは探索を省く(置換表は共有できる)。
+ * 打ち切りの条件(SearchControl)はPOLL_NODESノードごとに調べる。
+ */
+public final class EndgameSolver implements EndgameSearch {
+
+    public static final int SCORE_MAX = 64;
+
+    private static final int PARITY_EMPTIES = 7; // これ以下の空白では偶数理論で並べる
+    private static final int TABLE_EMPTIES = 10; // これ以上の空白で置換表を使う
+    private static final int POLL_NODES = 4096; // 打ち切りの条件を調べる間隔(2のべき乗)
+
+    // 空白が4つ以下の局面を専用の処理で調べる(-Dprelude.winloss.kernels=false で汎用の処理と比較する)
+    private static final boolean KERNELS =
+            Boolean.parseBoolean(System.getProperty("prelude.winloss.kernels", "true"));
+
+    private static final BooleanSupplier NEVER = () -> false;
+
+    private static final long[] QUADRANTS = new long[4]; // 盤面を4分割した位置
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            int y = i >>> 3;
+            int x = i & 7;
+            QUADRANTS[(y >>> 2) * 2 + (x >>> 2)] |= Bits.coordAt(i);
+        }
+    }
+
+    private final TranspositionTable table;
+    private final MoveList[] moveLists = new MoveList[61]; // 空白の数ごと
+    private long nodes;
+    private BooleanSupplier stop = NEVER;
+    private SearchControl control = SearchControl.NONE;
+    private long tableProbes;
+    private long tableHits;
+
+    public EndgameSolver() {
+        this(null);
+    }
+
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * 探索したノード数を返す
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * 探索を打ち切る条件を設定する。条件を満たすとSearchAbortedExceptionで呼び出し元に戻る
+     */
+    void setStop(BooleanSupplier stop) {
+        this.stop = (stop != null) ? stop : NEVER;
+    }
+
+    @Override
+    public void setControl(SearchControl control) {
+        this.control = (control != null) ? control : SearchControl.NONE;
+    }
+
+    @Override
+    public SearchControl control() {
+        return control;
+    }
+
+    /**
+     * 置換表を引いた回数を返す
+     */
+    public long tableProbes() {
+        return tableProbes;
+    }
+
+    /**
+     * 置換表の結果を使えた回数を返す
+     */
+    public long tableHits() {
+        return tableHits;
+    }
+
+    /**
+     * candidatesの中で石差が最大になる着手を返す
+     * <p>
+     * 着手可能な候補がなければ0を返す。
+     * 打ち切られた場合は、それまでに探索を終えた着手の中の最善手を返す
+     */
+    @Override
+    public long bestMove(long player, long opponent, long candidates) {
+        MoveList moves = moveLists[Bits.populationCount(~(player | opponent))];
+        int size = BitBoard.generateMoves(player, opponent, moves);
+        moves.sortFastestFirst();
+
+        long optimumMove = 0;
+        int alpha = -SCORE_MAX - 1;
+        try {
+            for (int i = 0; i < size; i++) {
+                long coord = moves.coord(i);
+                if ((candidates & coord) == 0) { // 候補に含まれない着手は除く
+                    continue;
+                }
+
+                long flipped = moves.flipped(i);
+                int value = -solve(opponent ^ flipped, player | coord | flipped,
+                        moves.replyMoves(i), -SCORE_MAX, -alpha);
+                if (value > alpha) {
+                    alpha = value;
+                    optimumMove = coord;
+                    control.update(coord, value);
+                }
+            }
+        } catch (SearchAbortedException e) {
+            return control.bestMove();
+        }
+        return optimumMove;
+    }
+
+    /**
+     * 石差を返す
+     * <p>
+     * 石差がalpha以下ならalpha以下の値(上界)を、beta以上ならbeta以上の値(下界)を返す
+     */
+    @Override
+    public int solve(long player, long opponent, int alpha, int beta) {
+        return solve(player, opponent, BitBoard.availableMoves(player, opponent), alpha, beta);
+    }
+
+    private int solve(long player, long opponent, long mobility, int alpha, int beta) {
+        int empties = Bits.populationCount(~(player | opponent));
+        if (empties <= PARITY_EMPTIES) {
+            return solveParity(player, opponent, alpha, beta, empties);
+        }
+
+        countNode();
+        if (alpha >= 2 * empties - 2) { // 上界がalpha以下になり得る局面だけ確定石を数える
+            int upper = SCORE_MAX - 2 * Stability.count(opponent, player);
+            if (upper <= alpha) {
+                return upper;
+            }
+        }
+
+        boolean useTable = table != null && empties >= TABLE_EMPTIES;
+        long hash = 0;
+        long entry = 0;
+        if (useTable) {
+            tableProbes++;
+            hash = BoardHash.hash(player, opponent);
+            entry = table.probe(hash);
+            if (entry != 0 && TranspositionTable.depth(entry) == empties) {
+                int lower = TranspositionTable.lower(entry);
+                int upper = TranspositionTable.upper(entry);
+                if (lower >= beta || upper <= alpha || lower == upper) {
+                    tableHits++;
+                    return (lower >= beta || lower == upper) ? lower : upper;
+                }
+                // 登録された範囲に窓を狭める
+                alpha = Math.max(alpha, lower);
+                beta = Math.min(beta, upper);
+            } else {
+                entry = 0;
+            }
+        }
+
+        MoveList moves = moveLists[empties];
+        int size = BitBoard.generateMoves(player, opponent, mobility, moves);
+        if (size == 0) {
+            long opponentMobility = BitBoard.availableMoves(opponent, player);
+            if (opponentMobility == 0) {
+                return Position.finalScore(player, opponent);
+            }
+            return -solve(opponent, player, opponentMobility, -beta, -alpha);
+        }
+        moves.sortFastestFirst();
+        if (entry != 0 && TranspositionTable.index(entry) != TranspositionTable.NO_MOVE) {
+            moves.moveToFront(TranspositionTable.index(entry));
+        }
+
+        int alpha0 = alpha;
+        int maxValue = -SCORE_MAX - 1;
+        int bestIndex = TranspositionTable.NO_MOVE;
+        for (int i = 0; i < size; i++) {
+            long coord = moves.coord(i);
+            long flipped = moves.flipped(i);
+            int value = -solve(opponent ^ flipped, player | coord | flipped,
+                    moves.replyMoves(i), -beta, -alpha);
+            if (value > maxValue) {
+                maxValue = value;
+                bestIndex = moves.index(i);
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (useTable) {
+            int lower = (entry != 0) ? TranspositionTable.lower(entry) : -SCORE_MAX;
+            int upper = (entry != 0) ? TranspositionTable.upper(entry) : SCORE_MAX;
+            if (maxValue <= alpha0) {
+                upper = maxValue;
+            } else if (maxValue >= beta) {
+                lower = maxValue;
+            } else {
+                lower = maxValue;
+                upper = maxValue;
+            }
+            table.store(hash, empties, lower, upper, bestIndex);
+        }
+        return maxValue;
+    }
+
+    /**
+     * 空白が奇数の領域の着手から順に調べる
+     * <p>
+     * 着手可能な位置は求めずに、空白ごとに反転する石があるかで判定する
+     */
+    private int solveParity(long player, long opponent, int alpha, int beta, int empties) {
+        if (KERNELS && empties <= 4) {
+            switch (empties) {
+                case 4:
+                    return solve4(player, opponent, alpha, beta, false);
+                case 3:
+                    return solve3(player, opponent, alpha, beta, false);
+                case 2:
+                    return solve2(player, opponent, alpha, beta, false);
+                case 1:
+                    return solve1(player, opponent);
+                default:
+                    break;
+            }
+        }
+
+        countNode();
+        long emptyBoard = ~(player | opponent);
+        if (emptyBoard == 0) {
+            return Position.finalScore(player, opponent);
+        }
+
+        long oddEmpties = BitFeature.oddArea(player, opponent);
+        long coords = oddEmpties;
+        long evenEmpties = emptyBoard ^ oddEmpties;
+        int maxValue = -SCORE_MAX - 1;
+        while (true) {
+            if (coords == 0) {
+                if (evenEmpties == 0) {
+                    break;
+                }
+                coords = evenEmpties;
+                evenEmpties = 0;
+            }
+            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
+            coords ^= coord;  // 一番右のビットを0にする
+
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            if (flipped == 0) {
+                continue;
+            }
+            int value = -solveParity(opponent ^ flipped, player | coord | flipped, -beta, -alpha, empties - 1);
+            if (value > maxValue) {
+                maxValue = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        return maxValue;
+                    }
+                }
+            }
+        }
+
+        if (maxValue == -SCORE_MAX - 1) { // 着手できない
+            if (BitBoard.availableMoves(opponent, player) == 0) {
+                return Position.finalScore(player, opponent);
+            }
+            return -solveParity(opponent, player, -beta, -alpha, empties);
+        }
+        return maxValue;
+    }
+
+    private int solve4(long player, long opponent, int alpha, int beta, boolean passed) {
+        countNode();
+        int squares = orderedEmpties(~(player | opponent));
+        int maxValue = -SCORE_MAX - 1;
+        for (int i = 0; i < 4; i++, squares >>>= 6) {
+            int index = squares & 0x3f;
+            long flipped = BitBoard.computeFlipped(player, opponent, index);
+            if (flipped == 0) {
+                continue;
+            }
+            int value = -solve3(opponent ^ flipped, player | Bits.coordAt(index) | flipped, -beta, -alpha, false);
+            if (value > maxValue) {
+                maxValue = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        return maxValue;
+                    }
+                }
+            }
+        }
+
+        if (maxValue == -SCORE_MAX - 1) { // 着手できない
+            if (passed) {
+                return Position.finalScore(player, opponent);
+            }
+            return -solve4(opponent, player, -beta, -alpha, true);
+        }
+        return maxValue;
+    }
+
+    private int solve3(long player, long opponent, int alpha, int beta, boolean passed) {
+        countNode();
+        int squares = orderedEmpties(~(player | opponent));
+        int maxValue = -SCORE_MAX - 1;
+        for (int i = 0; i < 3; i++, squares >>>= 6) {
+            int index = squares & 0x3f;
+            long flipped = BitBoard.computeFlipped(player, opponent, index);
+            if (flipped == 0) {
+                continue;
+            }
+            int value = -solve2(opponent ^ flipped, player | Bits.coordAt(index) | flipped, -beta, -alpha, false);
+            if (value > maxValue) {
+                maxValue = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        return maxValue;
+                    }
+                }
+            }
+        }
+
+        if (maxValue == -SCORE_MAX - 1) { // 着手できない
+            if (passed) {
+                return Position.finalScore(player, opponent);
+            }
+            return -solve3(opponent, player, -beta, -alpha, true);
+        }
+        return maxValue;
+    }
+
+    private int solve2(long player, long opponent, int alpha, int beta, boolean passed) {
+        countNode();
+        long emptyBoard = ~(player | opponent);
+        long coord1 = Bits.getRightmostBit(emptyBoard);
+        long coord2 = emptyBoard ^ coord1;
+        int maxValue = -SCORE_MAX - 1;
+
+        long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord1));
+        if (flipped != 0) {
+            maxValue = -solve1(opponent ^ flipped, player | coord1 | flipped);
+            if (maxValue >= beta) {
+                return maxValue;
+            }
+        }
+        flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord2));
+        if (flipped != 0) {
+            return Math.max(maxValue, -solve1(opponent ^ flipped, player | coord2 | flipped));
+        }
+
+        if (maxValue == -SCORE_MAX - 1) { // 着手できない
+            if (passed) {
+                return Position.finalScore(player, opponent);
+            }
+            return -solve2(opponent, player, -beta, -alpha, true);
+        }
+        return maxValue;
+    }
+
+    /**
+     * 最後の1手を調べる
+     * <p>
+     * 空白以外の63マスの石の数から、反転数だけで終局時の石差を求める
+     */
+    private int solve1(long player, long opponent) {
+        countNode();
+        long coord = ~(player | opponent);
+        int index = Bits.indexOf(coord);
+        int playerCount = Bits.populationCount(player);
+
+        int flipCount = LastFlip.count(player, index);
+        if (flipCount > 0) {
+            return 2 * (playerCount + flipCount) - 62; // (自石 + 1 + 反転数) - (相手石 - 反転数)
+        }
+        flipCount = LastFlip.count(opponent, index);
+        if (flipCount > 0) {
+            return 2 * (playerCount - flipCount) - 64; // (自石 - 反転数) - (相手石 + 1 + 反転数)
+        }
+        // 両者とも打てなければ、空白は勝った側に加える
+        return (playerCount >= 32) ? 2 * playerCount - 62 : 2 * playerCount - 64;
+    }
+
+    private void countNode() {
+        if ((++nodes & (POLL_NODES - 1)) == 0 && (stop.getAsBoolean() || control.isStopped())) {
+            throw SearchAbortedException.INSTANCE;
+        }
+    }
+
+    /**
+     * 空白の位置を、空白が奇数の象限から順に6ビットずつ詰めて返す(空白は4つまで)
+     */
+    private static int orderedEmpties(long emptyBoard) {
+        long oddEmpties = emptyBoard & oddQuadrants(emptyBoard);
+        long coords = oddEmpties;
+        long evenEmpties = emptyBoard ^ oddEmpties;
+        int squares = 0;
+        int shift = 0;
+        while (true) {
+            if (coords == 0) {
+                if (evenEmpties == 0) {
+                    break;
+                }
+                coords = evenEmpties;
+                evenEmpties = 0;
+            }
+            long coord = Bits.getRightmostBit(coords);
+            squares |= Bits.indexOf(coord) << shift;
+            shift += 6;
+            coords ^= coord;
+        }
+        return squares;
+    }
+
+    /**
+     * 空白が奇数の象限を返す
+     */
+    private static long oddQuadrants(long emptyBoard) {
+        long mask = 0;
+        for (long quadrant : QUADRANTS) {
+            mask |= quadrant & -(Bits.populationCount(emptyBoard & quadrant) & 1);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.BoardHash;
+import com.github.koriel50000.prelude.reversi.MoveList;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 終盤の完全読みを並列に行う(Young Brothers Wait)
+ * <p>
+ * 最初の子局面を探索して窓を狭めてから、残りの子局面をForkJoinPoolの空いているスレッドに分ける。
+ * 子局面でbeta以上の値が返れば、残りの子局面の探索を打ち切る。
+ * 空白がSPLIT_EMPTIES以下の局面は、スレッドごとのEndgameSolverで逐次に探索する。
+ * SearchControlで打ち切られると、すべての探索を打ち切ってルートの探索を終えた子局面から最善手を選ぶ。
+ */
+public final class ParallelEndgameSolver implements EndgameSearch {
+
+    private static final int SPLIT_EMPTIES = 12; // これ以下の空白では分割しない
+
+    private static final long ALL_MOVES = -1L;
+
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final ThreadLocal<EndgameSolver> solvers;
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder tableProbes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private volatile SearchControl control = SearchControl.NONE;
+
+    public ParallelEndgameSolver(ForkJoinPool pool, TranspositionTable table) {
+        this.pool = pool;
+        this.table = table;
+        solvers = ThreadLocal.withInitial(() -> new EndgameSolver(table));
+    }
+
+    /**
+     * 探索したノード数を返す
+     */
+    public long nodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * 置換表を引いた回数を返す
+     */
+    public long tableProbes() {
+        return tableProbes.sum();
+    }
+
+    /**
+     * 置換表の結果を使えた回数を返す
+     */
+    public long tableHits() {
+        return tableHits.sum();
+    }
+
+    @Override
+    public void setControl(SearchControl control) {
+        this.control = (control != null) ? control : SearchControl.NONE;
+    }
+
+    @Override
+    public SearchControl control() {
+        return control;
+    }
+
+    /**
+     * candidatesの中で石差が最大になる着手を返す
+     * <p>
+     * 着手可能な候補がなければ0を返す。
+     * 打ち切られた場合は、それまでに探索を終えた着手の中の最善手を返す
+     */
+    @Override
+    public long bestMove(long player, long opponent, long candidates) {
+        SolveTask task = new SolveTask(null, player, opponent, candidates,
+                -EndgameSolver.SCORE_MAX - 1, EndgameSolver.SCORE_MAX + 1);
+        task.root = true;
+        try {
+            invoke(task);
+        } catch (SearchAbortedException e) {
+            return control.bestMove();
+        }
+        return (task.bestIndex != TranspositionTable.NO_MOVE) ? Bits.coordAt(task.bestIndex) : 0;
+    }
+
+    /**
+     * 石差を返す
+     *
+     * @see EndgameSolver#solve(long, long, int, int)
+     */
+    @Override
+    public int solve(long player, long opponent, int alpha, int beta) {
+        return invoke(new SolveTask(null, player, opponent, ALL_MOVES, alpha, beta));
+    }
+
+    /**
+     * ルートの探索を実行して値を返す。打ち切られたらSearchAbortedExceptionで戻る
+     * <p>
+     * ForkJoinPool.invokeの待機は割り込みを受け付けず、割り込みの状態も消えるため、
+     * 待機中の割り込みはSearchControlの取り消しとしてワーカースレッドに伝える
+     */
+    private int invoke(SolveTask task) {
+        pool.execute(task);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    int value = task.get();
+                    if (task.aborted()) {
+                        throw SearchAbortedException.INSTANCE;
+                    }
+                    return value;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    if (control != SearchControl.NONE) {
+                        control.cancel();
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 局面の探索(分割点)
+     * <p>
+     * 子の探索は、開始時に親の窓(兄の探索で狭まったalpha)を読み直す
+     */
+    private class SolveTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SolveTask parent;
+        private final long player;
+        private final long opponent;
+        private final long candidates;
+        private int alpha;
+        private int beta;
+
+        private volatile int sharedAlpha;
+        private volatile boolean stopped; // beta以上の値が見つかり、子の探索は不要
+        private int bestIndex = TranspositionTable.NO_MOVE;
+        private boolean root; // 最善手を求めるルート(着手を調べるため置換表と逐次の探索は使わず、子局面の値を途中結果に加える)
+
+        SolveTask(SolveTask parent, long player, long opponent, long candidates, int alpha, int beta) {
+            this.parent = parent;
+            this.player = player;
+            this.opponent = opponent;
+            this.candidates = candidates;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+
+        /**
+         * 祖先のどれかで探索が打ち切られたか、SearchControlで打ち切られたらtrue
+         * <p>
+         * 一度trueになると以降もtrueのため、falseならそれまでに返った子の値は正しい
+         */
+        private boolean aborted() {
+            for (SolveTask task = parent; task != null; task = task.parent) {
+                if (task.stopped) {
+                    return true;
+                }
+            }
+            return control.isStopped();
+        }
+
+        /**
+         * ルートの子局面の値を途中結果に加える
+         */
+        private void report(int index, int value) {
+            if (root && !aborted()) {
+                control.update(Bits.coordAt(index), value);
+            }
+        }
+
+        @Override
+        protected Integer compute() {
+            try {
+                return search();
+            } catch (SearchAbortedException e) {
+                return 0; // 打ち切られた探索の値は使われない
+            }
+        }
+
+        private int search() {
+            if (parent != null) {
+                beta = Math.min(beta, -parent.sharedAlpha);
+            }
+            if (aborted() || alpha >= beta) {
+                return alpha;
+            }
+
+            int empties = Bits.populationCount(~(player | opponent));
+            if (empties <= SPLIT_EMPTIES && !root) {
+                EndgameSolver solver = solvers.get();
+                long before = solver.nodes();
+                long probesBefore = solver.tableProbes();
+                long hitsBefore = solver.tableHits();
+                solver.setStop(this::aborted);
+                try {
+                    return solver.solve(player, opponent, alpha, beta);
+                } finally {
+                    solver.setStop(null);
+                    nodes.add(solver.nodes() - before);
+                    tableProbes.add(solver.tableProbes() - probesBefore);
+                    tableHits.add(solver.tableHits() - hitsBefore);
+                }
+            }
+
+            nodes.increment();
+            boolean useTable = table != null && !root;
+            long hash = 0;
+            long entry = 0;
+            if (table != null) {
+                hash = BoardHash.hash(player, opponent);
+                entry = table.probe(hash);
+                if (useTable) {
+                    tableProbes.increment();
+                }
+                if (entry != 0 && TranspositionTable.depth(entry) == empties) {
+                    int lower = TranspositionTable.lower(entry);
+                    int upper = TranspositionTable.upper(entry);
+                    if (useTable) {
+                        if (lower >= beta || lower == upper) {
+                            tableHits.increment();
+                            return lower;
+                        }
+                        if (upper <= alpha) {
+                            tableHits.increment();
+                            return upper;
+                        }
+                        alpha = Math.max(alpha, lower);
+                        beta = Math.min(beta, upper);
+                    }
+                } else {
+                    entry = 0;
+                }
+            }
+
+            MoveList moves = new MoveList();
+            int size = BitBoard.generateMoves(player, opponent, moves);
+            if (size == 0) {
+                if (BitBoard.availableMoves(opponent, player) == 0) {
+                    return Position.finalScore(player, opponent);
+                }
+                sharedAlpha = alpha;
+                return -new SolveTask(this, opponent, player, ALL_MOVES, -beta, -alpha).search();
+            }
+            moves.sortFastestFirst();
+            if (entry != 0 && TranspositionTable.index(entry) != TranspositionTable.NO_MOVE) {
+                moves.moveToFront(TranspositionTable.index(entry));
+            }
+
+            int alpha0 = alpha;
+            int maxValue = -EndgameSolver.SCORE_MAX - 1;
+            boolean searched = false;
+            sharedAlpha = alpha;
+            List<SolveTask> tasks = new ArrayList<>();
+            int[] indices = new int[size];
+            for (int i = 0; i < size; i++) {
+                long coord = moves.coord(i);
+                if ((candidates & coord) == 0) { // 候補に含まれない着手は除く
+                    continue;
+                }
+                long flipped = moves.flipped(i);
+                SolveTask task = new SolveTask(this, opponent ^ flipped, player | coord | flipped,
+                        ALL_MOVES, -beta, -alpha);
+                if (!searched) {
+                    // 最初の子局面は、このスレッドで探索して窓を狭める
+                    searched = true;
+                    maxValue = -task.search();
+                    bestIndex = moves.index(i);
+                    report(bestIndex, maxValue);
+                    if (maxValue > alpha) {
+                        alpha = maxValue;
+                        sharedAlpha = alpha;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                    continue;
+                }
+                indices[tasks.size()] = moves.index(i);
+                tasks.add(task);
+                task.fork();
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                SolveTask task = tasks.get(i);
+                if (alpha >= beta) {
+                    task.cancel(false);
+                    continue;
+                }
+                int value = -task.join();
+                if (value > maxValue) {
+                    maxValue = value;
+                    bestIndex = indices[i];
+                    report(bestIndex, value);
+                    if (value > alpha) {
+                        alpha = value;
+                        sharedAlpha = alpha;
+                        if (alpha >= beta) {
+                            stopped = true;
+                        }
+                    }
+                }
+            }
+
+            if (useTable && !aborted()) {
+                int lower = (entry != 0) ? TranspositionTable.lower(entry) : -EndgameSolver.SCORE_MAX;
+                int upper = (entry != 0) ? TranspositionTable.upper(entry) : EndgameSolver.SCORE_MAX;
+                if (maxValue <= alpha0) {
+                    upper = maxValue;
+                } else if (maxValue >= beta) {
+                    lower = maxValue;
+                } else {
+                    lower = maxValue;
+                    upper = maxValue;
+                }
+                table.store(hash, empties, lower, upper, bestIndex);
+            }
+            return maxValue;
+        }
+    }
+}
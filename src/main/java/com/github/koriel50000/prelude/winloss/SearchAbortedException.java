@@ -0,0 +1,17 @@
+package com.github.koriel50000.prelude.winloss;
+
+/**
+ * 探索の打ち切り
+ * <p>
+ * 探索の途中から呼び出し元まで戻るためだけに使うので、スタックトレースは持たない
+ */
+final class SearchAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    static final SearchAbortedException INSTANCE = new SearchAbortedException();
+
+    private SearchAbortedException() {
+        super("search aborted", null, false, false);
+    }
+}
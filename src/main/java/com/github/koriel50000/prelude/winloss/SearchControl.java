@@ -0,0 +1,83 @@
+package com.github.koriel50000.prelude.winloss;
+
+/**
+ * 探索の打ち切りの条件(期限・取り消し・呼び出し元スレッドの割り込み)と、打ち切るまでの途中結果
+ * <p>
+ * 探索するスレッドは一定のノード数ごとにisStoppedを調べて、打ち切られたら探索を途中で戻す。
+ * 途中結果は、ルートの子局面のうち探索を終えたものの中の最善手とその値。
+ * 並列の探索では、呼び出し元スレッドの割り込みをワーカースレッドから調べる。
+ */
+public final class SearchControl {
+
+    static final SearchControl NONE = new SearchControl(Long.MAX_VALUE, null);
+
+    private final long deadline; // System.nanoTime()の値(Long.MAX_VALUEなら期限なし)
+    private final Thread owner; // 割り込みを調べるスレッド
+
+    private volatile boolean cancelled;
+    private long bestMove;
+    private int bestValue;
+
+    private SearchControl(long deadline, Thread owner) {
+        this.deadline = deadline;
+        this.owner = owner;
+    }
+
+    /**
+     * 期限のない探索を返す(取り消しと呼び出し元スレッドの割り込みで打ち切る)
+     */
+    public static SearchControl unlimited() {
+        return new SearchControl(Long.MAX_VALUE, Thread.currentThread());
+    }
+
+    /**
+     * 今から指定された時間(ms)で打ち切る探索を返す
+     */
+    public static SearchControl withTimeout(long millis) {
+        return new SearchControl(System.nanoTime() + millis * 1_000_000L, Thread.currentThread());
+    }
+
+    /**
+     * 探索を取り消す
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 探索を打ち切るならtrue
+     */
+    public boolean isStopped() {
+        if (cancelled) {
+            return true;
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+            return true;
+        }
+        return owner != null && owner.isInterrupted();
+    }
+
+    /**
+     * 探索を終えたルートの子局面の値で、途中結果を更新する
+     */
+    synchronized void update(long coord, int value) {
+        if (bestMove == 0 || value > bestValue) {
+            bestMove = coord;
+            bestValue = value;
+        }
+    }
+
+    /**
+     * 途中結果の最善手を返す(探索を終えた子局面がなければ0)
+     */
+    public synchronized long bestMove() {
+        return bestMove;
+    }
+
+    /**
+     * 途中結果の最善手の値を返す
+     */
+    public synchronized int bestValue() {
+        return bestValue;
+    }
+}
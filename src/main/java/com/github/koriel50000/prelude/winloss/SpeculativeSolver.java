@@ -0,0 +1,163 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.BoardHash;
+import com.github.koriel50000.prelude.reversi.MoveList;
+import com.github.koriel50000.prelude.util.Bits;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 相手の手番の間に、相手の着手ごとの次の自分の手番の局面を、優先度の低いスレッドで完全読みしておく(先読み)
+ * <p>
+ * 相手の着手は、着手後の自分の着手可能数が少ない順(fastest-first)に、相手が選びそうな順として調べる。
+ * 読み切った局面の最善手と石差は表(と完全読みの結果のファイル)に残し、途中で打ち切った局面も置換表に結果が残る。
+ * 新しい局面を渡すか取り消すと、前の先読みは打ち切る。
+ * 前より空白の多い局面を渡されたら新しい対局とみなして、表を空にする。
+ */
+final class SpeculativeSolver {
+
+    private final TranspositionTable table;
+    private final EndgameDatabase database; // なければnull
+    private final EndgameSearch.Mode mode;
+    private final ExecutorService executor;
+    private final Map<Long, long[]> results = new ConcurrentHashMap<>(); // {自石, 相手石, 最善手, 石差}
+
+    private Speculation speculation; // 実行中の先読み
+    private int lastEmpties = Integer.MAX_VALUE; // 前の先読みの局面の空白の数
+
+    /**
+     * 先読みの取り消し
+     * <p>
+     * 局面ごとにSearchControlを作るため、取り消しは実行中の局面のSearchControlにも伝える
+     */
+    private static class Speculation {
+
+        private volatile boolean cancelled;
+        private volatile SearchControl current;
+
+        void cancel() {
+            cancelled = true;
+            SearchControl control = current;
+            if (control != null) {
+                control.cancel();
+            }
+        }
+
+        /**
+         * 次の局面のSearchControlを返す(取り消されていればnull)
+         */
+        SearchControl next() {
+            SearchControl control = SearchControl.unlimited();
+            current = control;
+            return cancelled ? null : control;
+        }
+    }
+
+    SpeculativeSolver(TranspositionTable table, EndgameDatabase database, EndgameSearch.Mode mode) {
+        this.table = table;
+        this.database = database;
+        this.mode = (mode != EndgameSearch.Mode.WIN_LOSS) ? mode : EndgameSearch.Mode.MTDF; // 石差を残すため
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "speculative-solver");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * 相手の手番の局面から先読みを始める(前の先読みは打ち切る)
+     */
+    synchronized void start(long player, long opponent) {
+        cancel();
+        int empties = Bits.populationCount(~(player | opponent));
+        if (empties > lastEmpties) {
+            results.clear(); // 前の対局の局面は現れない
+        }
+        lastEmpties = empties;
+        Speculation speculation = new Speculation();
+        this.speculation = speculation;
+        executor.execute(() -> speculate(player, opponent, speculation));
+    }
+
+    /**
+     * 先読みを打ち切る
+     */
+    synchronized void cancel() {
+        if (speculation != null) {
+            speculation.cancel();
+            speculation = null;
+        }
+    }
+
+    void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+    /**
+     * 先読みで読み切った局面の{自石, 相手石, 最善手, 石差}を返す(なければnull)
+     */
+    long[] probe(long player, long opponent) {
+        long[] result = results.get(BoardHash.hash(player, opponent));
+        if (result == null || result[0] != player || result[1] != opponent) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * 先読みで読み切った局面の数を返す
+     */
+    int size() {
+        return results.size();
+    }
+
+    private void speculate(long player, long opponent, Speculation speculation) {
+        MoveList moves = new MoveList();
+        int size = BitBoard.generateMoves(player, opponent, moves);
+        if (size == 0) {
+            // 相手がパスなら、自分の手番の局面はこの局面の手番を入れ替えたもの
+            solve(opponent, player, speculation);
+            return;
+        }
+        moves.sortFastestFirst();
+        for (int i = 0; i < size; i++) {
+            long coord = moves.coord(i);
+            long flipped = moves.flipped(i);
+            if (!solve(opponent ^ flipped, player | coord | flipped, speculation)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 自分の手番の局面を読み切って結果を残す。打ち切られたらfalseを返す
+     */
+    private boolean solve(long player, long opponent, Speculation speculation) {
+        if (probe(player, opponent) != null || BitBoard.availableMoves(player, opponent) == 0) {
+            return true;
+        }
+        SearchControl control = speculation.next();
+        if (control == null) {
+            return false;
+        }
+
+        EndgameSolver solver = new EndgameSolver(table);
+        solver.setControl(control);
+        long move = solver.bestMove(player, opponent, -1L, mode);
+        if (control.isStopped() || move == 0) {
+            return false;
+        }
+        int score = control.bestValue();
+        results.put(BoardHash.hash(player, opponent), new long[]{player, opponent, move, score});
+        if (database != null) {
+            database.store(player, opponent, score, move);
+        }
+        return true;
+    }
+}
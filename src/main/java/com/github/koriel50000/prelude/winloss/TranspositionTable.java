@@ -0,0 +1,138 @@
+package com.github.koriel50000.prelude.winloss;
+
+import java.util.Arrays;
+
+/**
+ * 複数スレッドで共有する置換表
+ * <p>
+ * 1エントリはlong2つ(ハッシュ値とデータのXOR・データ)で、1つのlong[]に並べる。
+ * 読み出し時にXORでハッシュ値を確かめるため、ロックなしで書き込みが重なっても壊れたエントリは読まない。
+ * 2エントリを1組(bucket)にして、同じ局面がなければ古い世代(age)・浅い深さのエントリを置き換える。
+ * <p>
+ * データのビット配置: 下界(16)・上界(16)・最善手の位置(8)・深さ(8)・世代(8)・使用中(1)
+ */
+public final class TranspositionTable {
+
+    private static final int DEFAULT_MEGABYTES = Integer.getInteger("prelude.tt.mb", 32);
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 2;
+
+    public static final int NO_MOVE = 64;
+
+    private static final long VALID = 1L << 56;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int age;
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * 指定されたサイズ(MB)以下で、最大の2のべき乗個のbucketを確保する
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = ((long) megabytes << 20) / (ENTRY_BYTES * BUCKET_ENTRIES);
+        if (buckets < 1) {
+            throw new IllegalArgumentException("megabytes: " + megabytes);
+        }
+        buckets = Long.highestOneBit(Math.min(buckets, 1 << 26));
+        table = new long[(int) buckets * BUCKET_ENTRIES * 2];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * エントリ数を返す
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        age = 0;
+    }
+
+    /**
+     * 世代を進める(着手ごとに呼ぶ)
+     * <p>
+     * 前の世代のエントリは、深さによらず先に置き換えられる
+     */
+    public void nextAge() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * 局面のエントリを返す。なければ0を返す
+     */
+    public long probe(long hash) {
+        int base = ((int) hash & bucketMask) * (BUCKET_ENTRIES * 2);
+        for (int i = base; i < base + BUCKET_ENTRIES * 2; i += 2) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 局面の探索結果を登録する
+     *
+     * @param lower 評価値の下界
+     * @param upper 評価値の上界
+     * @param index 最善手の位置(なければNO_MOVE)
+     */
+    public void store(long hash, int depth, int lower, int upper, int index) {
+        int age = this.age;
+        long data = (lower & 0xFFFFL) | (upper & 0xFFFFL) << 16 | (long) index << 32
+                | (long) depth << 40 | (long) age << 48 | VALID;
+
+        int base = ((int) hash & bucketMask) * (BUCKET_ENTRIES * 2);
+        int victim = base;
+        int victimPriority = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET_ENTRIES * 2; i += 2) {
+            long entry = table[i + 1];
+            if ((table[i] ^ entry) == hash && entry != 0) {
+                if (depth < depth(entry) && age == age(entry)) { // 同じ世代の深いエントリは残す
+                    return;
+                }
+                victim = i;
+                break;
+            }
+            // 空き < 前の世代 < 同じ世代の浅い深さ の順に置き換える
+            int priority = (entry == 0) ? -1 : (age == age(entry) ? 256 : 0) + depth(entry);
+            if (priority < victimPriority) {
+                victim = i;
+                victimPriority = priority;
+            }
+        }
+        table[victim + 1] = data;
+        table[victim] = hash ^ data;
+    }
+
+    public static int lower(long entry) {
+        return (short) entry;
+    }
+
+    public static int upper(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    /**
+     * 最善手の位置を返す(なければNO_MOVE)
+     */
+    public static int index(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 40) & 0xFF;
+    }
+
+    static int age(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+}
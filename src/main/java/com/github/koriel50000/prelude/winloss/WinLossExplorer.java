@@ -3,12 +3,89 @@ package com.github.koriel50000.prelude.winloss;
 import com.github.koriel50000.prelude.reversi.BitBoard;
 import com.github.koriel50000.prelude.util.Bits;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
 public class WinLossExplorer {
 
+    private static final int EMPTIES = Integer.getInteger("prelude.winloss.empties", 16);
+    private static final int THREADS = Integer.getInteger("prelude.winloss.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final EndgameSearch.Mode MODE =
+            EndgameSearch.Mode.valueOf(System.getProperty("prelude.winloss.mode", "MTDF"));
+    private static final String DATABASE = System.getProperty("prelude.winloss.db"); // 完全読みの結果のディレクトリ
+    private static final int SPECULATE = Integer.getInteger("prelude.winloss.speculate", 26); // 0なら先読みしない
+
     private BitBoard board;
+    private TranspositionTable table;
+    private ForkJoinPool pool; // 1スレッドならnull
+    private ParallelEndgameSolver parallelSolver; // 1スレッドならnull
+    private EndgameDatabase database; // -Dprelude.winloss.db の指定がなければnull
+    private SpeculativeSolver speculativeSolver; // -Dprelude.winloss.speculate=0 ならnull
+
+    // 逐次の探索の合計(並列の探索はParallelEndgameSolverが数える)
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder tableProbes = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
 
     public WinLossExplorer(BitBoard board) {
+        this(board, (DATABASE != null) ? new EndgameDatabase(Paths.get(DATABASE), EMPTIES) : null);
+    }
+
+    /**
+     * 完全読みの結果のファイルを指定する(nullなら使わない)
+     */
+    WinLossExplorer(BitBoard board, EndgameDatabase database) {
         this.board = board;
+        this.database = database;
+        table = new TranspositionTable();
+        if (THREADS > 1) {
+            pool = new ForkJoinPool(THREADS);
+            parallelSolver = new ParallelEndgameSolver(pool, table);
+        }
+        if (SPECULATE > 0) {
+            speculativeSolver = new SpeculativeSolver(table, database, MODE);
+        }
+    }
+
+    public void destroy() {
+        if (speculativeSolver != null) {
+            speculativeSolver.shutdown();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (database != null) {
+            try {
+                database.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * これまでの探索のノード数の合計を返す
+     */
+    public long nodes() {
+        return nodes.sum() + ((parallelSolver != null) ? parallelSolver.nodes() : 0);
+    }
+
+    /**
+     * これまでの探索で置換表を引いた回数の合計を返す
+     */
+    public long tableProbes() {
+        return tableProbes.sum() + ((parallelSolver != null) ? parallelSolver.tableProbes() : 0);
+    }
+
+    /**
+     * これまでの探索で置換表の結果を使えた回数の合計を返す
+     */
+    public long tableHits() {
+        return tableHits.sum() + ((parallelSolver != null) ? parallelSolver.tableHits() : 0);
     }
 
     /**
@@ -16,57 +93,131 @@ public class WinLossExplorer {
      * falseの場合も、制限時間内に勝敗が判定するかは未確定
      */
     public boolean notPossible() {
-        // FIXME
-        return true;
-        //return board.depth > 10; // 残り10マスから探索開始
+        return board.depth > EMPTIES; // 残りEMPTIESマス(-Dprelude.winloss.empties)から探索開始
+    }
+
+    /**
+     * 相手の手番の局面を渡して、相手の着手ごとの次の自分の手番の局面の先読みを始める(前の先読みは打ち切る)
+     * <p>
+     * 空白が-Dprelude.winloss.speculateマス以下の局面だけ先読みする。
+     * 先読みは優先度の低いスレッドで動かし、置換表と読み切った局面の最善手を残す
+     */
+    public void speculate(long player, long opponent) {
+        if (speculativeSolver == null) {
+            return;
+        }
+        if (Bits.populationCount(~(player | opponent)) > SPECULATE) {
+            speculativeSolver.cancel();
+            return;
+        }
+        speculativeSolver.start(player, opponent);
+    }
+
+    /**
+     * 先読みを打ち切る(自分の手番の探索の前に呼んで、探索と同時に動かないようにする)
+     */
+    public void cancelSpeculation() {
+        if (speculativeSolver != null) {
+            speculativeSolver.cancel();
+        }
     }
 
     public long explore(long player, long opponent, long moves) {
-        long optimumMove = 0;
+        return explore(player, opponent, moves, MODE); // -Dprelude.winloss.mode(EXACT, MTDF, WIN_LOSS)
+    }
 
-        int maxValue = Integer.MIN_VALUE;
-        while (moves != 0) {
-            long coord = Bits.getRightmostBit(moves);  // 一番右のビットのみ取り出す
+    public long explore(long player, long opponent, long moves, SearchControl control) {
+        return explore(player, opponent, moves, MODE, control);
+    }
 
-            int depth = board.depth;
-            int value = negamax(player, opponent, depth, false);
-            if (value > maxValue) {
-                maxValue = value;
-                optimumMove = coord;
-            }
+    /**
+     * 指定された方法で最善手を返す
+     * <p>
+     * 勝敗だけ分かればよい局面ではWIN_LOSSの方が速い
+     */
+    public long explore(long player, long opponent, long moves, EndgameSearch.Mode mode) {
+        return explore(player, opponent, moves, mode, SearchControl.unlimited());
+    }
 
-            moves ^= coord;  // 一番右のビットを0にする
-        }
-        return optimumMove;
+    /**
+     * 先読みで読み切った局面か、完全読みの結果のファイルにある局面ならば最善手を返す(なければ0)
+     * <p>
+     * 探索はしないので、空白がEMPTIESより多い(notPossibleがtrueの)局面でも引ける
+     */
+    public long probe(long player, long opponent, long moves) {
+        return probe(player, opponent, moves, MODE, SearchControl.unlimited());
     }
 
-    private int negamax(long player, long opponent, int depth, boolean passedBefore) {
-        if (depth == 0) {
-            return Bits.populationCount(player) - Bits.populationCount(opponent);
+    /**
+     * 指定された方法で最善手を返す
+     * <p>
+     * controlで打ち切られた場合は、それまでに探索を終えた着手の中の最善手を返す(なければ0)。
+     * 先読みで読み切った局面と完全読みの結果のファイルにある局面は探索せず、
+     * すべての着手を読み切った石差はファイルに追記する
+     */
+    public long explore(long player, long opponent, long moves, EndgameSearch.Mode mode, SearchControl control) {
+        long coord = probe(player, opponent, moves, mode, control);
+        if (coord != 0) {
+            return coord;
         }
 
-        long coords = board.availableMoves(player, opponent);
-        if (coords == 0) {
-            if (passedBefore) {
-                int maxValue = Bits.populationCount(player) - Bits.populationCount(opponent);
-                return (maxValue > 0) ? maxValue + depth : maxValue - depth;
-            }
-            return -negamax(opponent, player, depth, true);
+        coord = search(player, opponent, moves, mode, control);
+        // WIN_LOSSの値は石差ではなく、打ち切られた探索や一部の着手だけの探索は局面の石差ではない
+        if (database != null && coord != 0 && mode != EndgameSearch.Mode.WIN_LOSS && !control.isStopped()
+                && (BitBoard.availableMoves(player, opponent) & ~moves) == 0) {
+            database.store(player, opponent, control.bestValue(), coord);
         }
+        return coord;
+    }
 
-        int maxValue = Integer.MIN_VALUE;
-        while (coords != 0) {
-            long coord = Bits.getRightmostBit(coords);  // 一番右のビットのみ取り出す
-            int index = Bits.indexOf(coord);
+    /**
+     * 先読みの結果、完全読みの結果のファイルの順に引いて、最善手とその値をcontrolに渡す
+     */
+    private long probe(long player, long opponent, long moves, EndgameSearch.Mode mode, SearchControl control) {
+        if (speculativeSolver != null) {
+            long[] result = speculativeSolver.probe(player, opponent);
+            if (result != null && (moves & result[2]) != 0) {
+                int score = (int) result[3];
+                control.update(result[2], (mode == EndgameSearch.Mode.WIN_LOSS) ? Integer.signum(score) : score);
+                return result[2];
+            }
+        }
+        if (database != null) {
+            int entry = database.probe(player, opponent);
+            if (entry != 0 && (moves & EndgameDatabase.move(entry)) != 0) {
+                int score = EndgameDatabase.score(entry);
+                control.update(EndgameDatabase.move(entry),
+                        (mode == EndgameSearch.Mode.WIN_LOSS) ? Integer.signum(score) : score);
+                return EndgameDatabase.move(entry);
+            }
+        }
+        return 0;
+    }
 
-            long flipped = board.computeFlipped(player, opponent, index);
-            int value = -negamax(opponent ^ flipped, player | coord | flipped, depth - 1, false);
-            if (value > maxValue) {
-                maxValue = value;
+    private long search(long player, long opponent, long moves, EndgameSearch.Mode mode, SearchControl control) {
+        if (parallelSolver != null) {
+            // 打ち切られた前の探索が戻るのを待ってから始める
+            synchronized (parallelSolver) {
+                table.nextAge();
+                parallelSolver.setControl(control);
+                try {
+                    return parallelSolver.bestMove(player, opponent, moves, mode);
+                } finally {
+                    parallelSolver.setControl(null);
+                }
             }
+        }
 
-            coords ^= coord;  // 一番右のビットを0にする
+        // 打ち切られた前の探索と少しの間同時に動くことがあるため、探索ごとに作る(置換表は共有する)
+        table.nextAge();
+        EndgameSolver solver = new EndgameSolver(table);
+        solver.setControl(control);
+        try {
+            return solver.bestMove(player, opponent, moves, mode);
+        } finally {
+            nodes.add(solver.nodes());
+            tableProbes.add(solver.tableProbes());
+            tableHits.add(solver.tableHits());
         }
-        return maxValue;
     }
 }
@@ -0,0 +1,48 @@
+package com.github.koriel50000.prelude.learning;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BitFeatureTest {
+
+    /**
+     * ランダム対戦で、増分で求めた奇数領域・偶数領域が、局面から求めた領域と一致することを確認する
+     */
+    @Test
+    void oddArea() {
+        Random random = new Random(1);
+        BitFeature bitFeature = new BitFeature();
+        for (int game = 0; game < 200; game++) {
+            Position position = Position.initial();
+            bitFeature.clear();
+            while (!position.hasCompleted()) {
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                long coord = Bits.getRightmostBit(coords);
+                int index = Bits.indexOf(coord);
+                long flipped = BitBoard.computeFlipped(position.player(), position.opponent(), index);
+                bitFeature.setState(position.player(), position.opponent(), flipped, coord, index);
+                position = position.play(index);
+
+                long player = position.player();
+                long opponent = position.opponent();
+                assertEquals(bitFeature.oddArea(), BitFeature.oddArea(player, opponent), position::toString);
+                assertEquals(bitFeature.evenArea(), BitFeature.evenArea(player, opponent), position::toString);
+                assertEquals(Long.bitCount(bitFeature.oddArea()) & 1, BitFeature.oddCount(player, opponent) & 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.koriel50000.prelude.learning;
+
+import com.github.koriel50000.prelude.reversi.Reversi;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class PreludeFeatureTest {
+
+    /**
+     * ランダム対戦で、局面ごとに使い回した対称変換の判定でも、毎回判定し直した特徴量と一致することを確認する
+     */
+    @Test
+    void symmetryCache() {
+        Random random = new Random(1);
+        Reversi reversi = new Reversi();
+        PreludeFeature feature = new PreludeFeature();
+        for (int game = 0; game < 20; game++) {
+            reversi.clear();
+            feature.clear();
+            while (true) {
+                List<Coord> moves = reversi.availableMoves();
+                for (Coord coord : moves) {
+                    PreludeFeature expected = new PreludeFeature(); // 判定を使い回さない
+                    expected.clear();
+                    assertArrayEquals(expected.getStateBuffer(reversi, coord), feature.getStateBuffer(reversi, coord));
+                }
+                boolean passed = moves.isEmpty();
+                if (!passed) {
+                    reversi.makeMove(moves.get(random.nextInt(moves.size())));
+                }
+                if (reversi.hasCompleted(passed)) {
+                    break;
+                }
+                reversi.nextTurn(passed);
+            }
+        }
+    }
+}
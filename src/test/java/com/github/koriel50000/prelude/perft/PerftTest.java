@@ -0,0 +1,57 @@
+package com.github.koriel50000.prelude.perft;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PerftTest {
+
+    private static final long BLACK = 0x0000000810000000L;
+    private static final long WHITE = 0x0000001008000000L;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpAll() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        pool.shutdown();
+    }
+
+    @Test
+    void count() {
+        Perft perft = new Perft(pool);
+        assertAll(
+                () -> assertEquals(4L, perft.count(BLACK, WHITE, 1)),
+                () -> assertEquals(12L, perft.count(BLACK, WHITE, 2)),
+                () -> assertEquals(56L, perft.count(BLACK, WHITE, 3)),
+                () -> assertEquals(244L, perft.count(BLACK, WHITE, 4)),
+                () -> assertEquals(1396L, perft.count(BLACK, WHITE, 5)),
+                () -> assertEquals(8200L, perft.count(BLACK, WHITE, 6)),
+                () -> assertEquals(55092L, perft.count(BLACK, WHITE, 7)),
+                () -> assertEquals(390216L, perft.count(BLACK, WHITE, 8))
+        );
+    }
+
+    @Test
+    void countSerial() {
+        Perft perft = new Perft(pool);
+        assertEquals(perft.count(BLACK, WHITE, 9), perft.countSerial(BLACK, WHITE, 9));
+    }
+
+    @Test
+    void verify() {
+        Perft perft = new Perft(pool);
+        for (int depth = 1; depth <= 5; depth++) {
+            assertEquals(perft.countSerial(BLACK, WHITE, depth), perft.verify(BLACK, WHITE, depth));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class BatchSimulatorTest {
+
+    private static final int SIZE = 1001; // レーン数で割り切れない端数を含める
+
+    @Test
+    void playRandomScalar() {
+        playRandom(BatchKernel.of(BatchKernel.SCALAR));
+    }
+
+    /**
+     * Vector APIが使えない環境(JDK 16より前・src/vectorを含まないビルド)ではスキップする
+     */
+    @Test
+    void playRandomVector() {
+        BatchKernel kernel = BatchKernel.of(BatchKernel.VECTOR);
+        assumeTrue(BatchKernel.VECTOR.equals(kernel.name()), "vector kernel is not available");
+        assertEquals("com.github.koriel50000.prelude.reversi.VectorBatchKernel", kernel.getClass().getName());
+        playRandom(kernel);
+    }
+
+    /**
+     * 全対局の各手を1局面ずつPositionで追いかけて、着手可能な位置・着手後の局面・終局が一致することを確認する
+     * <p>
+     * 終局はBitBoard.hasCompletedと同じく、空白がない・片方の石がない・両者パスのいずれか
+     */
+    private void playRandom(BatchKernel kernel) {
+        BatchSimulator simulator = new BatchSimulator(SIZE, kernel);
+        Position[] positions = new Position[SIZE];
+        boolean[] passed = new boolean[SIZE];
+        boolean[] completed = new boolean[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            positions[i] = Position.initial();
+        }
+
+        SplittableRandom random = new SplittableRandom(1);
+        long[] moves = new long[SIZE];
+        int running = SIZE;
+        while (running > 0) {
+            long[] mobilities = simulator.computeMobilities();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(positions[i].mobility(), mobilities[i], kernel.name() + " game=" + i);
+                long coords = mobilities[i];
+                int n = coords != 0 ? random.nextInt(Bits.populationCount(coords)) : 0;
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                moves[i] = Bits.getRightmostBit(coords);
+            }
+            simulator.play(moves);
+
+            running = 0;
+            for (int i = 0; i < SIZE; i++) {
+                if (!completed[i] && moves[i] == 0) {
+                    long player = positions[i].player();
+                    long opponent = positions[i].opponent();
+                    completed[i] = passed[i] || (player | opponent) == -1 || player == 0 || opponent == 0;
+                    passed[i] = true;
+                } else {
+                    passed[i] = false;
+                }
+                positions[i] = moves[i] != 0 ? positions[i].play(Bits.indexOf(moves[i])) : positions[i].pass();
+                boolean blackTurn = simulator.currentColor(i) == BitBoard.BLACK;
+                long black = blackTurn ? positions[i].player() : positions[i].opponent();
+                long white = blackTurn ? positions[i].opponent() : positions[i].player();
+                assertEquals(black, simulator.blackBoard(i), kernel.name() + " game=" + i);
+                assertEquals(white, simulator.whiteBoard(i), kernel.name() + " game=" + i);
+                assertEquals(completed[i], simulator.hasCompleted(i), kernel.name() + " game=" + i);
+                if (!completed[i]) {
+                    running++;
+                }
+            }
+            assertEquals(running, simulator.running());
+        }
+    }
+}
@@ -67,6 +67,25 @@ public class BitsTest {
         );
     }
 
+    @Test
+    void selectBit() {
+        assertAll(
+                () -> assertEquals(0x0000000000000001L, Bits.selectBit(0x1000000000000055L, 0)),
+                () -> assertEquals(0x0000000000000040L, Bits.selectBit(0x1000000000000055L, 3)),
+                () -> assertEquals(0x1000000000000000L, Bits.selectBit(0x1000000000000055L, 4)),
+                () -> assertEquals(0x0000000100000000L, Bits.selectBit(0x000a0005000a0000L, 2)),
+                () -> assertEquals(0x8000000000000000L, Bits.selectBit(0xffffffffffffffffL, 63))
+        );
+        long bits = 0xED094617f366F271L;
+        for (int n = 0; n < Bits.populationCount(bits); n++) {
+            long expected = bits;
+            for (int i = 0; i < n; i++) {
+                expected &= expected - 1;
+            }
+            assertEquals(Bits.getRightmostBit(expected), Bits.selectBit(bits, n));
+        }
+    }
+
     @Test
     void scanLine() {
         long test = 0xED094617f366F271L;
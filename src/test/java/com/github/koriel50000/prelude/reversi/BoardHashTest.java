@@ -0,0 +1,84 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class BoardHashTest {
+
+    private static final LongUnaryOperator[] TRANSFORMS = {
+            m -> m,
+            Bits::flipLtRt,
+            Bits::flipUpDn,
+            Bits::flip,
+            Bits::transposed,
+            m -> Bits.flipLtRt(Bits.transposed(m)),
+            m -> Bits.flipUpDn(Bits.transposed(m)),
+            m -> Bits.flip(Bits.transposed(m))
+    };
+
+    @Test
+    void canonicalHash() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            long player = random.nextLong() & random.nextLong();
+            long opponent = random.nextLong() & ~player;
+            long expected = BoardHash.canonicalHash(player, opponent);
+            for (LongUnaryOperator transform : TRANSFORMS) {
+                long player_ = transform.applyAsLong(player);
+                long opponent_ = transform.applyAsLong(opponent);
+                assertEquals(expected, BoardHash.canonicalHash(player_, opponent_));
+            }
+        }
+    }
+
+    @Test
+    void hash() {
+        // 自石と相手石を入れ替えると異なる
+        long black = 0x0000000810000000L;
+        long white = 0x0000001008000000L;
+        assertNotEquals(BoardHash.hash(black, white), BoardHash.hash(white, black));
+        // 初期局面は石を入れ替えると左右反転と同じなので、1手進めた局面で確認する
+        Position position = Position.initial().play(37);
+        long player = position.player();
+        long opponent = position.opponent();
+        assertNotEquals(BoardHash.canonicalHash(player, opponent), BoardHash.canonicalHash(opponent, player));
+    }
+
+    /**
+     * ランダム対戦の局面で衝突がない
+     */
+    @Test
+    void collision() {
+        Random random = new Random(2);
+        Map<Long, Position> hashes = new HashMap<>();
+        for (int game = 0; game < 2000; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted()) {
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int i = 0; i < n; i++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+
+                long hash = BoardHash.hash(position.player(), position.opponent());
+                Position other = hashes.putIfAbsent(hash, position);
+                if (other != null) {
+                    assertEquals(other, position);
+                }
+            }
+        }
+    }
+}
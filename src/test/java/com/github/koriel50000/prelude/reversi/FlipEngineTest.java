@@ -0,0 +1,66 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FlipEngineTest {
+
+    private static final FlipEngine reference = FlipEngine.of(FlipEngine.CARRY);
+
+    @Test
+    void lineTable() {
+        verify(FlipEngine.of(FlipEngine.LINE_TABLE));
+    }
+
+    @Test
+    void koggeStone() {
+        verify(FlipEngine.of(FlipEngine.KOGGE_STONE));
+    }
+
+    /**
+     * ランダムな盤面とランダム対戦の局面で、すべての空白の位置の結果が現在の方式と一致することを確認する
+     */
+    private void verify(FlipEngine engine) {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long bits = random.nextLong();
+            long mask = random.nextLong() | random.nextLong(); // 石の多い盤面を多めにする
+            long player = bits & mask;
+            long opponent = ~bits & mask;
+            verify(engine, player, opponent);
+        }
+
+        for (int game = 0; game < 1000; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted()) {
+                verify(engine, position.player(), position.opponent());
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+            }
+        }
+    }
+
+    private void verify(FlipEngine engine, long player, long opponent) {
+        long empties = ~(player | opponent);
+        while (empties != 0) {
+            long coord = Bits.getRightmostBit(empties);
+            int index = Bits.indexOf(coord);
+            long expected = reference.computeFlipped(player, opponent, index);
+            assertEquals(expected, engine.computeFlipped(player, opponent, index),
+                    () -> String.format("%s %016x:%016x index=%d", engine.name(), player, opponent, index));
+            empties ^= coord;
+        }
+    }
+}
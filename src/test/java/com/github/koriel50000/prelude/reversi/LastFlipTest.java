@@ -0,0 +1,36 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LastFlipTest {
+
+    /**
+     * 空白が1つのランダムな盤面で、反転数が反転する石の数と一致することを確認する
+     */
+    @Test
+    void count() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            int index = random.nextInt(64);
+            long coord = Bits.coordAt(index);
+            long player = random.nextLong() & ~coord;
+            long opponent = ~player & ~coord;
+            assertEquals(Bits.populationCount(BitBoard.computeFlipped(player, opponent, index)),
+                    LastFlip.count(player, index), () -> String.format("%016x index=%d", player, index));
+        }
+        // 自石の少ない盤面(長い相手石の連続)
+        for (int i = 0; i < 100000; i++) {
+            int index = random.nextInt(64);
+            long coord = Bits.coordAt(index);
+            long player = random.nextLong() & random.nextLong() & random.nextLong() & ~coord;
+            long opponent = ~player & ~coord;
+            assertEquals(Bits.populationCount(BitBoard.computeFlipped(player, opponent, index)),
+                    LastFlip.count(player, index), () -> String.format("%016x index=%d", player, index));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MobilityTrackerTest {
+
+    /**
+     * ランダム対戦で、閾値ごとに差分で更新した着手可能な位置がavailableMovesと一致することを確認する
+     */
+    @Test
+    void play() {
+        int[] thresholds = {0, 8, 64};
+        for (int threshold : thresholds) {
+            Random random = new Random(1);
+            MobilityTracker tracker = new MobilityTracker(threshold);
+            for (int game = 0; game < 300; game++) {
+                Position position = Position.initial();
+                tracker.set(position.player(), position.opponent());
+                while (!position.hasCompleted()) {
+                    assertEquals(position.player(), tracker.player());
+                    assertEquals(position.opponent(), tracker.opponent());
+                    assertEquals(BitBoard.availableMoves(position.player(), position.opponent()), tracker.mobility());
+                    assertEquals(BitBoard.availableMoves(position.opponent(), position.player()), tracker.opponentMobility());
+                    long coords = tracker.mobility();
+                    if (coords == 0) {
+                        position = position.pass();
+                        tracker.pass();
+                        continue;
+                    }
+                    int n = random.nextInt(Bits.populationCount(coords));
+                    for (int j = 0; j < n; j++) {
+                        coords ^= Bits.getRightmostBit(coords);
+                    }
+                    long coord = Bits.getRightmostBit(coords);
+                    int index = Bits.indexOf(coord);
+                    tracker.play(coord, BitBoard.computeFlipped(position.player(), position.opponent(), index));
+                    position = position.play(index);
+                }
+            }
+        }
+    }
+}
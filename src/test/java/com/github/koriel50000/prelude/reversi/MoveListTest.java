@@ -0,0 +1,97 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoveListTest {
+
+    /**
+     * ランダムな盤面とランダム対戦の局面で、着手ごとの情報が1つずつ求めた値と一致することを確認する
+     */
+    @Test
+    void generateMoves() {
+        Random random = new Random(1);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 20000; i++) {
+            long bits = random.nextLong();
+            long mask = random.nextLong() | random.nextLong();
+            verify(bits & mask, ~bits & mask, moves);
+        }
+
+        for (int game = 0; game < 500; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted()) {
+                verify(position.player(), position.opponent(), moves);
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+            }
+        }
+    }
+
+    private void verify(long player, long opponent, MoveList moves) {
+        long coords = BitBoard.availableMoves(player, opponent);
+        int size = BitBoard.generateMoves(player, opponent, moves);
+        assertEquals(Bits.populationCount(coords), size);
+        for (int i = 0; i < size; i++) {
+            long coord = Bits.getRightmostBit(coords);
+            int index = Bits.indexOf(coord);
+            long flipped = BitBoard.computeFlipped(player, opponent, index);
+            assertEquals(coord, moves.coord(i));
+            assertEquals(index, moves.index(i));
+            assertEquals(flipped, moves.flipped(i), () -> String.format("%016x:%016x index=%d", player, opponent, index));
+            assertEquals(Bits.populationCount(flipped), moves.flipCount(i));
+            long replyMobility = BitBoard.availableMoves(opponent ^ flipped, player | coord | flipped);
+            assertEquals(replyMobility, moves.replyMoves(i));
+            assertEquals(Bits.populationCount(replyMobility), moves.replyMobility(i));
+            coords ^= coord;
+        }
+    }
+
+    @Test
+    void sortFastestFirst() {
+        MoveList moves = new MoveList();
+        Random random = new Random(2);
+        Position position = Position.initial();
+        for (int ply = 0; ply < 40 && !position.hasCompleted(); ply++) {
+            int size = BitBoard.generateMoves(position.player(), position.opponent(), moves);
+            long coords = 0;
+            for (int i = 0; i < size; i++) {
+                coords |= moves.coord(i);
+            }
+            moves.sortFastestFirst();
+            long sorted = 0;
+            for (int i = 0; i < size; i++) {
+                sorted |= moves.coord(i);
+                if (i > 0) {
+                    assertTrue(moves.replyMobility(i - 1) <= moves.replyMobility(i));
+                    if (moves.replyMobility(i - 1) == moves.replyMobility(i)) {
+                        // 同数なら生成した順(一番右のビットから)
+                        assertTrue(Long.compareUnsigned(moves.coord(i - 1), moves.coord(i)) < 0);
+                    }
+                }
+                assertEquals(BitBoard.computeFlipped(position.player(), position.opponent(), moves.index(i)), moves.flipped(i));
+                assertEquals(position.play(moves.index(i)).mobility(), moves.replyMoves(i));
+            }
+            assertEquals(coords, sorted);
+
+            if (size == 0) {
+                position = position.pass();
+            } else {
+                position = position.play(moves.index(random.nextInt(size)));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlayoutTest {
+
+    /**
+     * 同じシードの乱数でPositionを1手ずつ進めた終局の石差と、プレイアウトの石差が一致することを確認する
+     */
+    @Test
+    void play() {
+        for (long seed = 0; seed < 1000; seed++) {
+            int score = new Playout(seed).play(0x0000000810000000L, 0x0000001008000000L);
+
+            Playout playout = new Playout(seed);
+            Position position = Position.initial();
+            int sign = 1;
+            while (!position.hasCompleted()) {
+                long mobility = position.mobility();
+                if (mobility == 0) {
+                    position = position.pass();
+                } else {
+                    position = position.play(Bits.indexOf(playout.randomMove(mobility)));
+                }
+                sign = -sign;
+            }
+            int expected = sign * (Bits.populationCount(position.player()) - Bits.populationCount(position.opponent()));
+            assertEquals(expected, score, "seed:" + seed);
+        }
+    }
+
+    /**
+     * 着手可能な位置から一様に選ぶことを確認する
+     */
+    @Test
+    void randomMove() {
+        long mobility = 0x0000102004080000L;
+        int[] counts = new int[64];
+        Playout playout = new Playout(1);
+        for (int i = 0; i < 40000; i++) {
+            long coord = playout.randomMove(mobility);
+            assertEquals(coord, coord & mobility);
+            counts[Bits.indexOf(coord)]++;
+        }
+        for (long coords = mobility; coords != 0; coords &= coords - 1) {
+            int count = counts[Bits.indexOf(Bits.getRightmostBit(coords))];
+            assertTrue(Math.abs(count - 10000) < 500, "count:" + count);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PositionTest {
+
+    /**
+     * BitBoardとPosition・MoveStackでランダム対戦して、各局面が一致することを確認する
+     */
+    @Test
+    void playRandom() {
+        Random random = new Random(1);
+        BitBoard bitBoard = new BitBoard();
+        MoveStack stack = new MoveStack();
+
+        for (int game = 0; game < 200; game++) {
+            bitBoard.clear();
+            Position position = Position.initial();
+            stack.set(position);
+            List<Position> history = new ArrayList<>();
+
+            while (true) {
+                boolean blackTurn = bitBoard.currentColor == BitBoard.BLACK;
+                long player = blackTurn ? bitBoard.blackBoard : bitBoard.whiteBoard;
+                long opponent = blackTurn ? bitBoard.whiteBoard : bitBoard.blackBoard;
+                assertEquals(new Position(player, opponent), position);
+                assertEquals(position, stack.toPosition());
+                assertEquals(bitBoard.depth, position.emptyCount());
+                history.add(position);
+
+                boolean passed = false;
+                long coords = BitBoard.availableMoves(player, opponent);
+                assertEquals(coords, position.mobility());
+                assertEquals(coords, stack.mobility());
+                if (coords == 0) {
+                    passed = true;
+                    position = position.pass();
+                    stack.pass();
+                } else {
+                    int n = random.nextInt(Bits.populationCount(coords));
+                    for (int i = 0; i < n; i++) {
+                        coords ^= Bits.getRightmostBit(coords);
+                    }
+                    long coord = Bits.getRightmostBit(coords);
+                    int index = Bits.indexOf(coord);
+                    long flipped = BitBoard.computeFlipped(player, opponent, index);
+                    bitBoard.makeMove(flipped, coord);
+                    position = position.play(index);
+                    assertEquals(flipped, stack.play(index));
+                }
+
+                if (bitBoard.hasCompleted(passed)) {
+                    break;
+                }
+                bitBoard.nextTurn(passed);
+            }
+
+            // 終局の石差が一致する(終局後の局面は最後に着手した側の相手番)
+            Score score = bitBoard.getScore();
+            boolean blackTurn = bitBoard.currentColor == BitBoard.BLACK;
+            int expected = score.getBlackStones() - score.getWhiteStones();
+            int actual = blackTurn ? -position.finalScore() : position.finalScore();
+            assertEquals(expected, actual);
+
+            // 戻しで履歴を逆順にたどれる
+            assertEquals(history.size(), stack.ply());
+            for (int i = history.size() - 1; i >= 0; i--) {
+                stack.undo();
+                assertEquals(history.get(i), stack.toPosition());
+            }
+        }
+    }
+
+    @Test
+    void undoEmptyStack() {
+        MoveStack stack = new MoveStack();
+        stack.set(Position.initial());
+        assertThrows(IllegalStateException.class, stack::undo);
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StabilityTest {
+
+    @Test
+    void fullBoardAndCorners() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            long player = random.nextLong();
+            assertEquals(player, Stability.stableDiscs(player, ~player));
+        }
+
+        // 隅と、隅から辺に続く自石は確定石
+        long player = Bits.coordAt(0) | Bits.coordAt(1) | Bits.coordAt(2) | Bits.coordAt(8) | Bits.coordAt(63);
+        long opponent = Bits.coordAt(9) | Bits.coordAt(27);
+        assertEquals(player, Stability.stableDiscs(player, opponent));
+        // 隅につながらない辺の石は確定石でない
+        assertEquals(0, Stability.stableDiscs(Bits.coordAt(3), Bits.coordAt(4)));
+        // 初期局面に確定石はない
+        assertEquals(0, Stability.stableDiscs(Position.initial().player(), Position.initial().opponent()));
+    }
+
+    /**
+     * ランダム対戦の終盤の局面から、以降のすべての進行で確定石が反転しないことを確認する
+     */
+    @Test
+    void stableDiscs() {
+        Random random = new Random(2);
+        int stableCount = 0;
+        for (int game = 0; game < 300; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted() && position.emptyCount() > 8) {
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+            }
+            long player = position.player();
+            long opponent = position.opponent();
+            long playerStable = Stability.stableDiscs(player, opponent);
+            long opponentStable = Stability.stableDiscs(opponent, player);
+            assertEquals(playerStable, playerStable & player);
+            stableCount += Bits.populationCount(playerStable | opponentStable);
+            verify(player, opponent, playerStable, opponentStable);
+        }
+        assertTrue(stableCount > 0);
+    }
+
+    private void verify(long player, long opponent, long playerStable, long opponentStable) {
+        assertEquals(playerStable, player & playerStable, () -> String.format("%016x:%016x", player, opponent));
+        assertEquals(opponentStable, opponent & opponentStable, () -> String.format("%016x:%016x", player, opponent));
+
+        long coords = BitBoard.availableMoves(player, opponent);
+        if (coords == 0) {
+            if (BitBoard.availableMoves(opponent, player) != 0) {
+                verify(opponent, player, opponentStable, playerStable);
+            }
+            return;
+        }
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            verify(opponent ^ flipped, player | coord | flipped, opponentStable, playerStable);
+            coords ^= coord;
+        }
+    }
+}
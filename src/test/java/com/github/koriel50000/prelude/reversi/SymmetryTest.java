@@ -0,0 +1,127 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static com.github.koriel50000.prelude.reversi.Reversi.Coord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SymmetryTest {
+
+    /**
+     * 変換IDの順に並べたCoordの変換
+     */
+    private static final List<Function<Coord, Coord>> COORD_TRANSFORMS = List.of(
+            coord -> coord,
+            Coord::transposed,
+            Coord::flipLtRt,
+            Coord::flipLtRtTransposed,
+            Coord::flipUpDn,
+            Coord::flipUpDnTransposed,
+            Coord::flip,
+            Coord::flipTransposed
+    );
+
+    @Test
+    void applyAndInvert() {
+        for (int id = 0; id < Symmetry.COUNT; id++) {
+            for (Coord coord : Coord.values()) {
+                long bits = Bits.coordAt(coord.index());
+                long expected = Bits.coordAt(COORD_TRANSFORMS.get(id).apply(coord).index());
+                assertEquals(expected, Symmetry.apply(id, bits), "id=" + id + " " + coord);
+                assertEquals(bits, Symmetry.invert(id, Symmetry.apply(id, bits)), "id=" + id + " " + coord);
+            }
+        }
+    }
+
+    /**
+     * ランダム対戦の各局面で、8つの変換のどれからでも同じ代表局面になる
+     */
+    @Test
+    void canonicalize() {
+        Random random = new Random(1);
+        for (int game = 0; game < 100; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted()) {
+                long player = position.player();
+                long opponent = position.opponent();
+                int id = Symmetry.canonicalize(player, opponent);
+                long canonicalPlayer = Symmetry.apply(id, player);
+                long canonicalOpponent = Symmetry.apply(id, opponent);
+                for (int id_ = 0; id_ < Symmetry.COUNT; id_++) {
+                    long player_ = Symmetry.apply(id_, player);
+                    long opponent_ = Symmetry.apply(id_, opponent);
+                    int cmp = Long.compareUnsigned(canonicalPlayer, player_);
+                    assertTrue(cmp < 0 || (cmp == 0 && Long.compareUnsigned(canonicalOpponent, opponent_) <= 0));
+
+                    int canonicalId = Symmetry.canonicalize(player_, opponent_);
+                    assertEquals(canonicalPlayer, Symmetry.apply(canonicalId, player_));
+                    assertEquals(canonicalOpponent, Symmetry.apply(canonicalId, opponent_));
+                }
+                position = playRandom(position, random);
+            }
+        }
+    }
+
+    /**
+     * 対角線上の着手の転置判定が、盤面を1マスずつ比較する判定と一致する
+     */
+    @Test
+    void diagonalTransposes() {
+        Random random = new Random(2);
+        for (int game = 0; game < 100; game++) {
+            Position position = Position.initial();
+            while (!position.hasCompleted()) {
+                long player = position.player();
+                long opponent = position.opponent();
+                int mask = Symmetry.diagonalTransposes(player, opponent);
+                for (int id = 0; id < Symmetry.COUNT; id += 2) {
+                    boolean expected = isSymmetric(Symmetry.apply(id, player), Symmetry.apply(id, opponent));
+                    assertEquals(expected, (mask & (1 << id)) != 0, position + " id=" + id);
+                }
+                position = playRandom(position, random);
+            }
+        }
+
+        // 対角線で対称な局面は転置しない
+        assertEquals(0, Symmetry.diagonalTransposes(0x8000000000000001L, 0x0100000000000080L));
+    }
+
+    /**
+     * 右上三角領域を左上から転置位置と比較して、初めての違いが自石ならtrue
+     */
+    private static boolean isSymmetric(long player, long opponent) {
+        for (int y = 0; y < 8; y++) {
+            for (int x = y + 1; x < 8; x++) {
+                int stone = stoneAt(player, opponent, y * 8 + x);
+                int stone_ = stoneAt(player, opponent, x * 8 + y);
+                if (stone != stone_) {
+                    return stone == 1;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int stoneAt(long player, long opponent, int index) {
+        long coord = Bits.coordAt(index);
+        return (player & coord) != 0 ? 1 : (opponent & coord) != 0 ? 2 : 0;
+    }
+
+    private static Position playRandom(Position position, Random random) {
+        long coords = position.mobility();
+        if (coords == 0) {
+            return position.pass();
+        }
+        int n = random.nextInt(Bits.populationCount(coords));
+        for (int i = 0; i < n; i++) {
+            coords ^= Bits.getRightmostBit(coords);
+        }
+        return position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.koriel50000.prelude.rollout;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import com.github.koriel50000.prelude.winloss.EndgameSearch;
+import com.github.koriel50000.prelude.winloss.EndgameSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RolloutPolicyTest {
+
+    /**
+     * ランダム対戦で、空白がempties個になった手番側が着手できる局面を返す
+     */
+    private static Position endgame(int empties, Random random) {
+        while (true) {
+            Position position = Position.initial();
+            while (!position.hasCompleted() && position.emptyCount() > empties) {
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+            }
+            if (position.mobility() != 0) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * 勝てる局面では、勝てる着手を選ぶことを確認する
+     */
+    @Test
+    void winningMove() {
+        EndgameSolver solver = new EndgameSolver();
+        Random random = new Random(3);
+        RolloutPolicy rolloutPolicy = new RolloutPolicy(4);
+        try {
+            int count = 0;
+            while (count < 10) {
+                Position position = endgame(8, random);
+                long player = position.player();
+                long opponent = position.opponent();
+                if (solver.solve(player, opponent, EndgameSearch.Mode.EXACT) <= 0) {
+                    continue;
+                }
+                long coord = rolloutPolicy.rollout(player, opponent, position.mobility(), 200);
+                assertEquals(coord, rolloutPolicy.getLastCoord());
+                assertTrue(rolloutPolicy.getPlayouts() > 0);
+
+                long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+                int score = -solver.solve(opponent ^ flipped, player | coord | flipped, EndgameSearch.Mode.EXACT);
+                assertTrue(score > 0, position::toString);
+                count++;
+            }
+        } finally {
+            rolloutPolicy.destroy();
+        }
+    }
+
+    /**
+     * 中断されたスレッドでは、すぐに候補の中の着手を返すことを確認する
+     */
+    @Test
+    void interrupted() {
+        RolloutPolicy rolloutPolicy = new RolloutPolicy(5);
+        Position position = Position.initial();
+        long coords = position.mobility() & ~Bits.getRightmostBit(position.mobility());
+        Thread.currentThread().interrupt();
+        try {
+            long start = System.nanoTime();
+            long coord = rolloutPolicy.rollout(position.player(), position.opponent(), coords, 60_000);
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            assertNotEquals(0, coords & coord);
+            assertEquals(coord, rolloutPolicy.getLastCoord());
+        } finally {
+            Thread.interrupted();
+            rolloutPolicy.destroy();
+        }
+    }
+
+    /**
+     * 1スレッドの探索でも、制限時間までに候補の中の着手を返すことを確認する
+     */
+    @Test
+    void rolloutSingle() {
+        RolloutPolicy rolloutPolicy = new RolloutPolicy(6);
+        Position position = Position.initial();
+        long coords = position.mobility() & ~Bits.getRightmostBit(position.mobility());
+        try {
+            long start = System.nanoTime();
+            long coord = rolloutPolicy.rolloutSingle(position.player(), position.opponent(), coords, 100);
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            assertNotEquals(0, coords & coord);
+            assertEquals(coord, rolloutPolicy.getLastCoord());
+            assertTrue(rolloutPolicy.getPlayouts() > 0);
+        } finally {
+            rolloutPolicy.destroy();
+        }
+    }
+
+    /**
+     * 前のロールアウトが戻る前に次のロールアウトを始めても、最後の着手は次の局面の候補から選ばれることを確認する
+     */
+    @Test
+    void overlapping() throws InterruptedException {
+        RolloutPolicy rolloutPolicy = new RolloutPolicy(7);
+        try {
+            Position first = Position.initial();
+            Thread thread = new Thread(() -> rolloutPolicy.rollout(first.player(), first.opponent(),
+                    first.mobility(), 300));
+            thread.start();
+            Thread.sleep(50);
+
+            Position second = first.play(Bits.indexOf(Bits.getRightmostBit(first.mobility())));
+            long coord = rolloutPolicy.rolloutSingle(second.player(), second.opponent(), second.mobility(), 100);
+            thread.join();
+            assertNotEquals(0, coord & second.mobility());
+            assertEquals(coord, rolloutPolicy.getLastCoord());
+        } finally {
+            rolloutPolicy.destroy();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.koriel50000.prelude.rollout;
+
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UctSearchTest {
+
+    /**
+     * 子ノードの訪問回数の合計が親の訪問回数を超えず、勝ち点が訪問回数の2倍を超えないことを確認する
+     */
+    private static int assertConsistent(UctNode node) {
+        assertTrue(node.points() <= 2 * node.visits());
+        int visits = 0;
+        int nodes = 1;
+        for (int i = 0; i < node.childCount(); i++) {
+            UctNode child = node.child(i);
+            if (child != null) {
+                visits += child.visits();
+                nodes += assertConsistent(child);
+            }
+        }
+        assertTrue(visits <= node.visits());
+        return nodes;
+    }
+
+    /**
+     * 複数スレッドで1つの木を探索した後、仮の負けが残らず、根の訪問回数がプレイアウトの回数と一致することを確認する
+     */
+    @Test
+    void treeParallel() {
+        UctSearch search = new UctSearch(1, 4, UctSearch.Mode.TREE);
+        try {
+            Position position = Position.initial();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            long coord = search.search(position.player(), position.opponent(), position.mobility(), deadline, c -> {
+            });
+            assertNotEquals(0, coord & position.mobility());
+
+            assertEquals(1, search.roots().length);
+            UctNode root = search.roots()[0];
+            assertEquals(search.playouts(), root.visits());
+            assertEquals(root.mostVisited().coord, coord);
+            assertTrue(assertConsistent(root) > 4);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * 複数スレッドでスレッドごとの木を探索した後、根の訪問回数の合計がプレイアウトの回数と一致し、
+     * 合計した訪問回数が最大の着手を返すことを確認する
+     */
+    @Test
+    void rootParallel() {
+        UctSearch search = new UctSearch(1, 4, UctSearch.Mode.ROOT);
+        try {
+            Position position = Position.initial();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+            long coord = search.search(position.player(), position.opponent(), position.mobility(), deadline, c -> {
+            });
+
+            UctNode[] roots = search.roots();
+            assertEquals(4, roots.length);
+            long visits = 0;
+            int[] moveVisits = new int[64];
+            for (UctNode root : roots) {
+                visits += root.visits();
+                assertConsistent(root);
+                for (int i = 0; i < root.childCount(); i++) {
+                    moveVisits[Bits.indexOf(root.child(i).coord)] += root.child(i).visits();
+                }
+            }
+            assertEquals(search.playouts(), visits);
+            for (int count : moveVisits) {
+                assertTrue(count <= moveVisits[Bits.indexOf(coord)]);
+            }
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * 前の探索が戻る前に次の探索を始めても、前の探索が終わるのを待ってから、次の局面だけを探索することを確認する
+     */
+    @Test
+    void overlapping() throws InterruptedException {
+        UctSearch search = new UctSearch(1, 2, UctSearch.Mode.TREE);
+        try {
+            Position first = Position.initial();
+            long[] firstCoord = new long[1];
+            Thread thread = new Thread(() -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                firstCoord[0] = search.search(first.player(), first.opponent(), first.mobility(), deadline, c -> {
+                });
+            });
+            thread.start();
+            Thread.sleep(50);
+
+            Position second = first.play(Bits.indexOf(Bits.getRightmostBit(first.mobility())));
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(500);
+            long coord = search.search(second.player(), second.opponent(), second.mobility(), deadline, c -> {
+                assertNotEquals(0, c & second.mobility());
+            });
+            thread.join();
+
+            assertNotEquals(0, firstCoord[0] & first.mobility());
+            assertNotEquals(0, coord & second.mobility());
+            // 前の探索の停止に巻き込まれず、期限まで探索する
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(500));
+            UctNode root = search.roots()[0];
+            assertEquals(second.player(), root.player);
+            assertEquals(search.playouts(), root.visits());
+            assertConsistent(root);
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.koriel50000.prelude.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 2つの実装がビット単位で一致することを乱数で確認する
+ */
+public class BitsBackendTest {
+
+    private static final int TRIALS = 1_000_000;
+
+    private final BitsBackend intrinsic = BitsBackend.of(BitsBackend.INTRINSIC);
+    private final BitsBackend portable = BitsBackend.of(BitsBackend.PORTABLE);
+
+    private static long[] edgeCases() {
+        long[] cases = new long[64 * 3 + 4];
+        int i = 0;
+        for (int shift = 0; shift < 64; shift++) {
+            cases[i++] = 1L << shift;
+            cases[i++] = -1L << shift;
+            cases[i++] = -1L >>> shift;
+        }
+        cases[i++] = 0L;
+        cases[i++] = -1L;
+        cases[i++] = 0x5555555555555555L;
+        cases[i] = 0xaaaaaaaaaaaaaaaaL;
+        return cases;
+    }
+
+    private void assertAgree(long bits) {
+        assertEquals(portable.populationCount(bits), intrinsic.populationCount(bits),
+                () -> String.format("populationCount %016x", bits));
+        assertEquals(portable.reverse(bits), intrinsic.reverse(bits),
+                () -> String.format("reverse %016x", bits));
+        assertEquals(portable.countLeadingZeros(bits), intrinsic.countLeadingZeros(bits),
+                () -> String.format("countLeadingZeros %016x", bits));
+        assertEquals(portable.countTrailingZeros(bits), intrinsic.countTrailingZeros(bits),
+                () -> String.format("countTrailingZeros %016x", bits));
+        if (bits != 0) {
+            // indexOfはone-hotビット列のみ定義されている
+            long coord = bits & -bits;
+            assertEquals(portable.indexOf(coord), intrinsic.indexOf(coord),
+                    () -> String.format("indexOf %016x", coord));
+        }
+    }
+
+    @Test
+    void edges() {
+        for (long bits : edgeCases()) {
+            assertAgree(bits);
+        }
+    }
+
+    @Test
+    void uniform() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < TRIALS; i++) {
+            assertAgree(random.nextLong());
+        }
+    }
+
+    @Test
+    void sparse() {
+        // 盤面に近い疎なビット列
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < TRIALS; i++) {
+            long bits = random.nextLong() & random.nextLong() & random.nextLong();
+            assertAgree(bits);
+        }
+    }
+}
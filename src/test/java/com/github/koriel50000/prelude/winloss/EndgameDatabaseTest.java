@@ -0,0 +1,142 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.reversi.Symmetry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndgameDatabaseTest {
+
+    /**
+     * 着手可能な局面と、その石差・最善手
+     */
+    private static List<long[]> solved(int count, long seed) {
+        EndgameSolver solver = new EndgameSolver();
+        List<long[]> results = new ArrayList<>();
+        for (Position position : EndgameSolverTest.endgames(8, count, seed)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            if (BitBoard.availableMoves(player, opponent) == 0) {
+                continue;
+            }
+            long move = solver.bestMove(player, opponent, -1L);
+            int score = solver.solve(player, opponent, EndgameSearch.Mode.EXACT);
+            results.add(new long[]{player, opponent, score, move});
+        }
+        return results;
+    }
+
+    private static void assertFound(EndgameDatabase database, List<long[]> results) {
+        for (long[] result : results) {
+            int entry = database.probe(result[0], result[1]);
+            assertNotEquals(0, entry);
+            assertEquals(result[2], EndgameDatabase.score(entry));
+            assertEquals(result[3], EndgameDatabase.move(entry));
+        }
+    }
+
+    /**
+     * 対称な局面では、同じ石差と変換した最善手が返ることを確認する
+     */
+    @Test
+    void probeSymmetric(@TempDir Path directory) throws IOException {
+        List<long[]> results = solved(20, 11);
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            for (long[] result : results) {
+                database.store(result[0], result[1], (int) result[2], result[3]);
+            }
+            for (long[] result : results) {
+                for (int id = 0; id < Symmetry.COUNT; id++) {
+                    long player = Symmetry.apply(id, result[0]);
+                    long opponent = Symmetry.apply(id, result[1]);
+                    int entry = database.probe(player, opponent);
+                    assertEquals(result[2], EndgameDatabase.score(entry));
+                    assertEquals(Symmetry.apply(id, result[3]), EndgameDatabase.move(entry));
+                }
+            }
+            assertEquals(0, database.probe(0x0000000810000000L, 0x0000001008000000L));
+        }
+    }
+
+    /**
+     * 追記した結果が、開き直した後とcompactの後にも引けることを確認する
+     */
+    @Test
+    void reopenAndCompact(@TempDir Path directory) throws IOException {
+        List<long[]> first = solved(60, 12);
+        List<long[]> second = solved(60, 13);
+
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            for (long[] result : first) {
+                database.store(result[0], result[1], (int) result[2], result[3]);
+            }
+        }
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            assertFound(database, first);
+        }
+
+        EndgameDatabase.compact(directory);
+        assertFalse(Files.exists(directory.resolve(EndgameDatabase.LOG_FILE)));
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            assertFound(database, first);
+            for (long[] result : second) {
+                database.store(result[0], result[1], (int) result[2], result[3]);
+            }
+        }
+
+        // 整列済みのファイルと追記用のファイルをまとめる
+        EndgameDatabase.compact(directory);
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            assertFound(database, first);
+            assertFound(database, second);
+            assertTrue(database.size() <= first.size() + second.size());
+        }
+    }
+
+    /**
+     * 書きかけのレコードは読まずに、後の追記を続けられることを確認する
+     */
+    @Test
+    void truncatedLog(@TempDir Path directory) throws IOException {
+        List<long[]> results = solved(10, 14);
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            long[] result = results.get(0);
+            database.store(result[0], result[1], (int) result[2], result[3]);
+        }
+        Files.write(directory.resolve(EndgameDatabase.LOG_FILE), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            for (long[] result : results) {
+                database.store(result[0], result[1], (int) result[2], result[3]);
+            }
+        }
+        try (EndgameDatabase database = new EndgameDatabase(directory, 60)) {
+            assertFound(database, results);
+        }
+    }
+
+    /**
+     * 空白がmaxEmptiesより多い局面は登録しないことを確認する
+     */
+    @Test
+    void maxEmpties(@TempDir Path directory) throws IOException {
+        long[] result = solved(1, 15).get(0);
+        try (EndgameDatabase database = new EndgameDatabase(directory, 7)) {
+            database.store(result[0], result[1], (int) result[2], result[3]);
+            assertEquals(0, database.probe(result[0], result[1]));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndgameSearchTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpAll() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        pool.shutdown();
+    }
+
+    /**
+     * MTD(f)の石差と勝敗が、全幅の窓の石差と一致することを確認する
+     */
+    @Test
+    void solve() {
+        EndgameSolver exact = new EndgameSolver();
+        EndgameSearch[] searches = {
+                new EndgameSolver(),
+                new EndgameSolver(new TranspositionTable(1)),
+                new ParallelEndgameSolver(pool, new TranspositionTable(1)),
+        };
+        for (Position position : EndgameSolverTest.endgames(14, 30, 5)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            int expected = exact.solve(player, opponent, EndgameSearch.Mode.EXACT);
+            for (EndgameSearch search : searches) {
+                assertEquals(expected, search.solve(player, opponent, EndgameSearch.Mode.MTDF), position::toString);
+                assertEquals(expected, search.solveMtdf(player, opponent, expected + 7), position::toString);
+                assertEquals(Integer.signum(expected), search.solve(player, opponent, EndgameSearch.Mode.WIN_LOSS),
+                        position::toString);
+            }
+        }
+    }
+
+    /**
+     * 最善手を打った局面が、MTDFでは同じ石差に、WIN_LOSSでは同じ勝敗になることを確認する
+     */
+    @Test
+    void bestMove() {
+        EndgameSolver exact = new EndgameSolver();
+        EndgameSearch search = new EndgameSolver(new TranspositionTable(1));
+        List<Position> positions = EndgameSolverTest.endgames(13, 40, 6);
+        for (Position position : positions) {
+            long coords = position.mobility();
+            if (coords == 0) {
+                continue;
+            }
+            int expected = exact.solve(position.player(), position.opponent(), EndgameSearch.Mode.EXACT);
+
+            long coord = search.bestMove(position.player(), position.opponent(), coords, EndgameSearch.Mode.MTDF);
+            assertTrue((coords & coord) != 0);
+            Position next = position.play(Bits.indexOf(coord));
+            assertEquals(expected, -exact.solve(next.player(), next.opponent(), EndgameSearch.Mode.EXACT),
+                    position::toString);
+
+            coord = search.bestMove(position.player(), position.opponent(), coords, EndgameSearch.Mode.WIN_LOSS);
+            assertTrue((coords & coord) != 0);
+            next = position.play(Bits.indexOf(coord));
+            assertEquals(Integer.signum(expected),
+                    -Integer.signum(exact.solve(next.player(), next.opponent(), EndgameSearch.Mode.EXACT)),
+                    position::toString);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EndgameSolverTest {
+
+    /**
+     * ランダム対戦で空白を指定の数まで進めた局面を返す(途中で終局した対戦は除く)
+     */
+    static List<Position> endgames(int empties, int count, long seed) {
+        Random random = new Random(seed);
+        List<Position> positions = new ArrayList<>();
+        while (positions.size() < count) {
+            Position position = Position.initial();
+            while (!position.hasCompleted() && position.emptyCount() > empties) {
+                long coords = position.mobility();
+                if (coords == 0) {
+                    position = position.pass();
+                    continue;
+                }
+                int n = random.nextInt(Bits.populationCount(coords));
+                for (int j = 0; j < n; j++) {
+                    coords ^= Bits.getRightmostBit(coords);
+                }
+                position = position.play(Bits.indexOf(Bits.getRightmostBit(coords)));
+            }
+            if (!position.hasCompleted()) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * 枝刈りなしのminimaxで石差を求める
+     */
+    static int minimax(long player, long opponent) {
+        long coords = BitBoard.availableMoves(player, opponent);
+        if (coords == 0) {
+            if (BitBoard.availableMoves(opponent, player) == 0) {
+                return Position.finalScore(player, opponent);
+            }
+            return -minimax(opponent, player);
+        }
+
+        int maxValue = Integer.MIN_VALUE;
+        while (coords != 0) {
+            long coord = Bits.getRightmostBit(coords);
+            long flipped = BitBoard.computeFlipped(player, opponent, Bits.indexOf(coord));
+            maxValue = Math.max(maxValue, -minimax(opponent ^ flipped, player | coord | flipped));
+            coords ^= coord;
+        }
+        return maxValue;
+    }
+
+    /**
+     * 全幅の窓で石差がminimaxと一致し、狭い窓でも上界・下界の関係を満たすことを確認する
+     */
+    @Test
+    void solve() {
+        EndgameSolver solver = new EndgameSolver();
+        for (int empties = 1; empties <= 10; empties++) {
+            for (Position position : endgames(empties, 40, empties)) {
+                long player = position.player();
+                long opponent = position.opponent();
+                int expected = minimax(player, opponent);
+                assertEquals(expected, solver.solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX),
+                        position::toString);
+
+                int value = solver.solve(player, opponent, expected - 1, expected + 1);
+                assertEquals(expected, value, position::toString);
+                assertTrue(solver.solve(player, opponent, expected, expected + 2) <= expected);
+                assertTrue(solver.solve(player, opponent, expected - 2, expected) >= expected);
+            }
+        }
+    }
+
+    /**
+     * 最善手を打った局面の石差が、元の局面の石差と一致することを確認する
+     */
+    @Test
+    void bestMove() {
+        EndgameSolver solver = new EndgameSolver();
+        for (Position position : endgames(12, 30, 100)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            long coords = position.mobility();
+            if (coords == 0) {
+                continue;
+            }
+            int expected = solver.solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            long coord = solver.bestMove(player, opponent, coords);
+            assertTrue((coords & coord) != 0);
+            Position next = position.play(Bits.indexOf(coord));
+            assertEquals(expected, -solver.solve(next.player(), next.opponent(),
+                    -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX), position::toString);
+        }
+    }
+
+    /**
+     * ベンチマークの局面集(endgame/positions.txt)の空白14の局面と、公表された石差のあるFFOの空白20の局面で、
+     * 石差が一致することを確認する
+     */
+    @Test
+    void suitePositions() throws IOException {
+        EndgameSolver solver = new EndgameSolver(new TranspositionTable(1));
+        int count = 0;
+        try (InputStream in = getClass().getResourceAsStream("/endgame/positions.txt")) {
+            for (String line : IOUtils.readLines(in, StandardCharsets.UTF_8)) {
+                if (line.startsWith("#") || line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.trim().split("\\s+");
+                long player = 0;
+                long opponent = 0;
+                for (int i = 0; i < 64; i++) {
+                    char disc = fields[0].charAt(i);
+                    player |= (disc == 'X') ? Bits.coordAt(i) : 0;
+                    opponent |= (disc == 'O') ? Bits.coordAt(i) : 0;
+                }
+                int empties = Bits.populationCount(~(player | opponent));
+                if (empties == 14 || (empties == 20 && line.contains("FFO"))) {
+                    assertEquals(Integer.parseInt(fields[1]), solver.solve(player, opponent, EndgameSearch.Mode.EXACT), line);
+                    count++;
+                }
+            }
+        }
+        assertTrue(count > 0);
+    }
+}
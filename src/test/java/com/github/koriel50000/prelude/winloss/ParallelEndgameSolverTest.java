@@ -0,0 +1,72 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelEndgameSolverTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpAll() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        pool.shutdown();
+    }
+
+    /**
+     * 置換表の有無・窓の広さによらず、逐次の探索と同じ石差になることを確認する
+     */
+    @Test
+    void solve() {
+        EndgameSolver serial = new EndgameSolver();
+        ParallelEndgameSolver parallel = new ParallelEndgameSolver(pool, null);
+        ParallelEndgameSolver shared = new ParallelEndgameSolver(pool, new TranspositionTable(1));
+        for (Position position : EndgameSolverTest.endgames(16, 12, 3)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            int expected = serial.solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            assertEquals(expected, parallel.solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX),
+                    position::toString);
+            assertEquals(expected, shared.solve(player, opponent, -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX),
+                    position::toString);
+            assertEquals(expected, shared.solve(player, opponent, expected - 1, expected + 1), position::toString);
+            assertTrue(shared.solve(player, opponent, expected, expected + 2) <= expected);
+            assertTrue(shared.solve(player, opponent, expected - 2, expected) >= expected);
+        }
+        assertTrue(parallel.nodes() > 0);
+    }
+
+    /**
+     * 最善手を打った局面の石差が、元の局面の石差と一致することを確認する
+     */
+    @Test
+    void bestMove() {
+        EndgameSolver serial = new EndgameSolver();
+        ParallelEndgameSolver parallel = new ParallelEndgameSolver(pool, new TranspositionTable(1));
+        for (Position position : EndgameSolverTest.endgames(15, 12, 4)) {
+            long coords = position.mobility();
+            if (coords == 0) {
+                continue;
+            }
+            int expected = serial.solve(position.player(), position.opponent(),
+                    -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+            long coord = parallel.bestMove(position.player(), position.opponent(), coords);
+            assertTrue((coords & coord) != 0);
+            Position next = position.play(Bits.indexOf(coord));
+            assertEquals(expected, -serial.solve(next.player(), next.opponent(),
+                    -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX), position::toString);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.Position;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchControlTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUpAll() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        pool.shutdown();
+    }
+
+    private static EndgameSearch[] searches() {
+        return new EndgameSearch[]{
+                new EndgameSolver(new TranspositionTable(1)),
+                new ParallelEndgameSolver(pool, new TranspositionTable(1)),
+        };
+    }
+
+    /**
+     * 打ち切られなければ、途中結果が最善手とその石差になることを確認する
+     */
+    @Test
+    void bestMoveWithoutStop() {
+        EndgameSolver exact = new EndgameSolver();
+        for (Position position : EndgameSolverTest.endgames(11, 10, 7)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            if (BitBoard.availableMoves(player, opponent) == 0) {
+                continue;
+            }
+            int expected = exact.solve(player, opponent, EndgameSearch.Mode.EXACT);
+            for (EndgameSearch search : searches()) {
+                for (EndgameSearch.Mode mode : new EndgameSearch.Mode[]{EndgameSearch.Mode.EXACT, EndgameSearch.Mode.MTDF}) {
+                    SearchControl control = SearchControl.unlimited();
+                    search.setControl(control);
+                    long coord = search.bestMove(player, opponent, -1L, mode);
+                    assertEquals(coord, control.bestMove(), position::toString);
+                    assertEquals(expected, control.bestValue(), position::toString);
+                    assertFalse(control.isStopped());
+                }
+            }
+        }
+    }
+
+    /**
+     * 期限で打ち切られた探索が、期限のすぐ後に読み切った着手(なければ0)を返すことを確認する
+     */
+    @Test
+    void bestMoveWithTimeout() {
+        for (Position position : EndgameSolverTest.endgames(24, 2, 8)) {
+            long player = position.player();
+            long opponent = position.opponent();
+            long moves = BitBoard.availableMoves(player, opponent);
+            if (moves == 0) {
+                continue;
+            }
+            for (EndgameSearch search : searches()) {
+                for (EndgameSearch.Mode mode : EndgameSearch.Mode.values()) {
+                    SearchControl control = SearchControl.withTimeout(100);
+                    search.setControl(control);
+                    long start = System.nanoTime();
+                    long coord = search.bestMove(player, opponent, moves, mode);
+                    long elapsed = (System.nanoTime() - start) / 1_000_000L;
+
+                    assertTrue(elapsed < 1000, () -> "elapsed " + elapsed + "ms");
+                    assertEquals(control.bestMove(), coord);
+                    assertTrue(coord == 0 || (moves & coord) == coord);
+                    assertTrue(coord != 0 || control.isStopped());
+                }
+            }
+        }
+    }
+
+    /**
+     * 取り消された探索では、石差を返さずに打ち切られることを確認する
+     */
+    @Test
+    void solveCancelled() {
+        Position position = EndgameSolverTest.endgames(20, 1, 9).get(0);
+        for (EndgameSearch search : searches()) {
+            SearchControl control = SearchControl.unlimited();
+            control.cancel();
+            search.setControl(control);
+            assertThrows(SearchAbortedException.class,
+                    () -> search.solve(position.player(), position.opponent(), EndgameSearch.Mode.EXACT));
+        }
+    }
+
+    /**
+     * 呼び出し元スレッドへの割り込みで、探索が打ち切られることを確認する
+     */
+    @Test
+    void bestMoveInterrupted() throws InterruptedException {
+        Position position = EndgameSolverTest.endgames(24, 1, 10).get(0);
+        for (EndgameSearch search : searches()) {
+            AtomicLong elapsed = new AtomicLong(-1);
+            Thread thread = new Thread(() -> {
+                search.setControl(SearchControl.unlimited());
+                long start = System.nanoTime();
+                search.bestMove(position.player(), position.opponent(), -1L, EndgameSearch.Mode.EXACT);
+                elapsed.set((System.nanoTime() - start) / 1_000_000L);
+            });
+            thread.start();
+            Thread.sleep(100);
+            thread.interrupt();
+            thread.join(5000);
+
+            assertFalse(thread.isAlive());
+            assertTrue(elapsed.get() >= 0 && elapsed.get() < 1000, () -> "elapsed " + elapsed.get() + "ms");
+        }
+    }
+}
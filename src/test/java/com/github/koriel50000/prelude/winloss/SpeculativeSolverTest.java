@@ -0,0 +1,132 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.MoveList;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpeculativeSolverTest {
+
+    private static void await(SpeculativeSolver speculativeSolver, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (speculativeSolver.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 相手の着手ごとの次の局面を読み切り、最善手と石差が完全読みと一致することを確認する
+     */
+    @Test
+    void speculate() throws InterruptedException {
+        EndgameSolver solver = new EndgameSolver();
+        SpeculativeSolver speculativeSolver = new SpeculativeSolver(
+                new TranspositionTable(), null, EndgameSearch.Mode.MTDF);
+        try {
+            int expected = 0;
+            for (Position position : EndgameSolverTest.endgames(10, 5, 21)) {
+                long player = position.player();
+                long opponent = position.opponent();
+                MoveList moves = new MoveList();
+                int size = BitBoard.generateMoves(player, opponent, moves);
+                if (size == 0) {
+                    continue;
+                }
+                for (int i = 0; i < size; i++) {
+                    long flipped = moves.flipped(i);
+                    long player_ = opponent ^ flipped;
+                    long opponent_ = player | moves.coord(i) | flipped;
+                    if (BitBoard.availableMoves(player_, opponent_) != 0) {
+                        expected++;
+                    }
+                }
+                speculativeSolver.start(player, opponent);
+                await(speculativeSolver, expected);
+                assertEquals(expected, speculativeSolver.size());
+
+                for (int i = 0; i < size; i++) {
+                    long flipped = moves.flipped(i);
+                    long player_ = opponent ^ flipped;
+                    long opponent_ = player | moves.coord(i) | flipped;
+                    long[] result = speculativeSolver.probe(player_, opponent_);
+                    if (BitBoard.availableMoves(player_, opponent_) == 0) {
+                        assertNull(result);
+                        continue;
+                    }
+                    long coord = result[2];
+                    int score = solver.solve(player_, opponent_, EndgameSearch.Mode.EXACT);
+                    assertEquals(score, result[3]);
+                    long flipped_ = BitBoard.computeFlipped(player_, opponent_, Bits.indexOf(coord));
+                    assertEquals(score, -solver.solve(opponent_ ^ flipped_, player_ | coord | flipped_,
+                            EndgameSearch.Mode.EXACT));
+                }
+            }
+        } finally {
+            speculativeSolver.shutdown();
+        }
+    }
+
+    /**
+     * 読み切れない局面の先読みも、新しい局面を渡すと打ち切って次の局面を読むことを確認する
+     */
+    @Test
+    void restart() throws InterruptedException {
+        SpeculativeSolver speculativeSolver = new SpeculativeSolver(
+                new TranspositionTable(), null, EndgameSearch.Mode.MTDF);
+        try {
+            Position deep = EndgameSolverTest.endgames(30, 1, 22).get(0);
+            speculativeSolver.start(deep.player(), deep.opponent());
+            Thread.sleep(100);
+
+            Position shallow = EndgameSolverTest.endgames(6, 10, 23).stream()
+                    .filter(position -> position.mobility() != 0)
+                    .findFirst().get();
+            long player = shallow.player();
+            long opponent = shallow.opponent();
+            speculativeSolver.start(player, opponent);
+            await(speculativeSolver, 1);
+            assertTrue(speculativeSolver.size() > 0);
+
+            MoveList moves = new MoveList();
+            BitBoard.generateMoves(player, opponent, moves);
+            moves.sortFastestFirst();
+            long flipped = moves.flipped(0);
+            long player_ = opponent ^ flipped;
+            long opponent_ = player | moves.coord(0) | flipped;
+            if (BitBoard.availableMoves(player_, opponent_) != 0) {
+                assertNotNull(speculativeSolver.probe(player_, opponent_));
+            }
+        } finally {
+            speculativeSolver.shutdown();
+        }
+    }
+
+    /**
+     * 前より空白の多い局面(新しい対局)を渡すと、前の対局で読み切った局面を表から消すことを確認する
+     */
+    @Test
+    void newGame() throws InterruptedException {
+        SpeculativeSolver speculativeSolver = new SpeculativeSolver(
+                new TranspositionTable(), null, EndgameSearch.Mode.MTDF);
+        try {
+            Position position = EndgameSolverTest.endgames(6, 10, 24).stream()
+                    .filter(p -> p.mobility() != 0)
+                    .findFirst().get();
+            speculativeSolver.start(position.player(), position.opponent());
+            await(speculativeSolver, 1);
+            assertTrue(speculativeSolver.size() > 0);
+
+            Position next = EndgameSolverTest.endgames(40, 1, 25).get(0);
+            speculativeSolver.start(next.player(), next.opponent());
+            assertEquals(0, speculativeSolver.size());
+        } finally {
+            speculativeSolver.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TranspositionTableTest {
+
+    @Test
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.probe(12345L));
+
+        table.store(12345L, 20, -3, 5, 17);
+        long entry = table.probe(12345L);
+        assertEquals(-3, TranspositionTable.lower(entry));
+        assertEquals(5, TranspositionTable.upper(entry));
+        assertEquals(17, TranspositionTable.index(entry));
+        assertEquals(20, TranspositionTable.depth(entry));
+
+        // 同じ世代の浅い結果では置き換えない
+        table.store(12345L, 10, 0, 0, 3);
+        assertEquals(20, TranspositionTable.depth(table.probe(12345L)));
+        // 世代が進めば置き換える
+        table.nextAge();
+        table.store(12345L, 10, 0, 0, 3);
+        assertEquals(10, TranspositionTable.depth(table.probe(12345L)));
+
+        table.clear();
+        assertEquals(0, table.probe(12345L));
+    }
+
+    /**
+     * 同じbucketに入る局面では、前の世代・浅い深さのエントリから置き換えることを確認する
+     */
+    @Test
+    void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = table.capacity() / 2; // bucketの数
+        long hash1 = 1;
+        long hash2 = 1 + stride;
+        long hash3 = 1 + stride * 2;
+
+        table.store(hash1, 30, 0, 0, 0);
+        table.store(hash2, 12, 0, 0, 0);
+        table.store(hash3, 20, 0, 0, 0);
+        assertEquals(30, TranspositionTable.depth(table.probe(hash1)));
+        assertEquals(0, table.probe(hash2));
+        assertEquals(20, TranspositionTable.depth(table.probe(hash3)));
+
+        table.nextAge();
+        table.store(hash2, 12, 0, 0, 0);
+        assertEquals(12, TranspositionTable.depth(table.probe(hash2)));
+        table.store(hash1, 14, 0, 0, 0);
+        assertEquals(14, TranspositionTable.depth(table.probe(hash1)));
+        assertEquals(0, table.probe(hash3));
+    }
+
+    /**
+     * 置換表を使った探索と複数スレッドで共有した探索が、置換表なしの探索と一致することを確認する
+     */
+    @Test
+    void sharedSolve() throws Exception {
+        List<Position> positions = EndgameSolverTest.endgames(14, 24, 7);
+        EndgameSolver plain = new EndgameSolver();
+        int[] expected = new int[positions.size()];
+        for (int i = 0; i < positions.size(); i++) {
+            Position position = positions.get(i);
+            expected[i] = plain.solve(position.player(), position.opponent(),
+                    -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+        }
+
+        // 小さい表で置き換えと書き込みの競合を起こす
+        TranspositionTable table = new TranspositionTable(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    EndgameSolver solver = new EndgameSolver(table);
+                    int[] values = new int[positions.size()];
+                    for (int i = 0; i < positions.size(); i++) {
+                        Position position = positions.get(i);
+                        values[i] = solver.solve(position.player(), position.opponent(),
+                                -EndgameSolver.SCORE_MAX, EndgameSolver.SCORE_MAX);
+                        // 狭い窓の結果も登録する
+                        solver.solve(position.player(), position.opponent(), values[i] - 1, values[i]);
+                    }
+                    return values;
+                }));
+            }
+            for (Future<int[]> future : futures) {
+                int[] values = future.get();
+                for (int i = 0; i < positions.size(); i++) {
+                    assertEquals(expected[i], values[i], positions.get(i)::toString);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.koriel50000.prelude.winloss;
+
+import com.github.koriel50000.prelude.reversi.BitBoard;
+import com.github.koriel50000.prelude.reversi.MoveList;
+import com.github.koriel50000.prelude.reversi.Position;
+import com.github.koriel50000.prelude.util.Bits;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WinLossExplorerTest {
+
+    /**
+     * 完全読みの結果のファイルにある局面では、WIN_LOSSの途中結果に石差ではなく勝敗(1・0・-1)を返すことを確認する
+     */
+    @Test
+    void databaseWinLoss(@TempDir Path directory) {
+        EndgameSolver solver = new EndgameSolver();
+        Position position = EndgameSolverTest.endgames(8, 20, 31).stream()
+                .filter(p -> p.mobility() != 0
+                        && Math.abs(solver.solve(p.player(), p.opponent(), EndgameSearch.Mode.EXACT)) > 1)
+                .findFirst().get();
+        long player = position.player();
+        long opponent = position.opponent();
+        int score = solver.solve(player, opponent, EndgameSearch.Mode.EXACT);
+
+        WinLossExplorer explorer = new WinLossExplorer(new BitBoard(), new EndgameDatabase(directory, 60));
+        try {
+            long move = explorer.explore(player, opponent, -1L, EndgameSearch.Mode.EXACT); // ファイルに登録する
+
+            SearchControl control = SearchControl.unlimited();
+            assertEquals(move, explorer.explore(player, opponent, -1L, EndgameSearch.Mode.WIN_LOSS, control));
+            assertEquals(Integer.signum(score), control.bestValue());
+
+            control = SearchControl.unlimited();
+            assertEquals(move, explorer.explore(player, opponent, -1L, EndgameSearch.Mode.EXACT, control));
+            assertEquals(score, control.bestValue());
+        } finally {
+            explorer.destroy();
+        }
+    }
+
+    /**
+     * 空白が勝敗探索を始めるマス数より多い局面でも、先読みで読み切っていれば探索せずに最善手を引けることを確認する
+     */
+    @Test
+    void probeSpeculated() throws InterruptedException {
+        // 相手の手番で空白18、相手の着手後の自分の手番で空白17の局面
+        Position position = EndgameSolverTest.endgames(18, 10, 32).stream()
+                .filter(p -> p.mobility() != 0)
+                .findFirst().get();
+        long player = position.player();
+        long opponent = position.opponent();
+        MoveList moves = new MoveList();
+        int size = BitBoard.generateMoves(player, opponent, moves);
+
+        BitBoard board = new BitBoard();
+        board.clear();
+        board.depth = 17;
+        WinLossExplorer explorer = new WinLossExplorer(board, null);
+        try {
+            assertTrue(explorer.notPossible());
+            explorer.speculate(player, opponent);
+
+            long deadline = System.currentTimeMillis() + 60_000;
+            long player_ = 0;
+            long opponent_ = 0;
+            long coord = 0;
+            while (coord == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                for (int i = 0; i < size && coord == 0; i++) {
+                    long flipped = moves.flipped(i);
+                    player_ = opponent ^ flipped;
+                    opponent_ = player | moves.coord(i) | flipped;
+                    coord = explorer.probe(player_, opponent_, -1L);
+                }
+            }
+            assertNotEquals(0, coord);
+            assertEquals(coord, explorer.explore(player_, opponent_, -1L, SearchControl.withTimeout(0)));
+
+            EndgameSolver solver = new EndgameSolver(new TranspositionTable());
+            int score = solver.solve(player_, opponent_, EndgameSearch.Mode.EXACT);
+            long flipped_ = BitBoard.computeFlipped(player_, opponent_, Bits.indexOf(coord));
+            assertEquals(score, -solver.solve(opponent_ ^ flipped_, player_ | coord | flipped_,
+                    EndgameSearch.Mode.EXACT));
+        } finally {
+            explorer.destroy();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.koriel50000.prelude.reversi;
+
+import com.github.koriel50000.prelude.util.Bits;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector APIで複数の局面を同時に処理する実装
+ * <p>
+ * BitBoardの演算を方向ごとのシフトと塗りつぶし(dumb7fill)に置き換えてレーンごとに計算する。
+ * 端数の局面はBitBoardで計算する。
+ */
+final class VectorBatchKernel implements BatchKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private static final long MASK_LT_RT = 0x7e7e7e7e7e7e7e7eL;
+
+    // 方向ごとのシフト量(正は左シフト、負は右シフト)
+    private static final int[] SHIFTS = {1, -1, 8, -8, 9, -9, 7, -7};
+
+    @Override
+    public void mobility(long[] players, long[] opponents, long[] mobilities, int count) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector player = LongVector.fromArray(SPECIES, players, i);
+            LongVector opponent = LongVector.fromArray(SPECIES, opponents, i);
+            LongVector maskLtRt = opponent.and(MASK_LT_RT);
+            LongVector mobility = LongVector.zero(SPECIES);
+            for (int shift : SHIFTS) {
+                LongVector mask = (shift == 8 || shift == -8) ? opponent : maskLtRt;
+                LongVector tmp = shift(player, shift).and(mask);
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                mobility = mobility.or(shift(tmp, shift));
+            }
+            mobility.and(player.or(opponent).not()).intoArray(mobilities, i);
+        }
+        for (; i < count; i++) {
+            mobilities[i] = BitBoard.availableMoves(players[i], opponents[i]);
+        }
+    }
+
+    /**
+     * 着手の位置から方向ごとに相手石をたどり、自石で挟めた方向の石を反転する(着手が0ならパス)
+     */
+    @Override
+    public void play(long[] players, long[] opponents, long[] moves, int count) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            LongVector player = LongVector.fromArray(SPECIES, players, i);
+            LongVector opponent = LongVector.fromArray(SPECIES, opponents, i);
+            LongVector move = LongVector.fromArray(SPECIES, moves, i);
+            LongVector maskLtRt = opponent.and(MASK_LT_RT);
+            LongVector flipped = LongVector.zero(SPECIES);
+            for (int shift : SHIFTS) {
+                LongVector mask = (shift == 8 || shift == -8) ? opponent : maskLtRt;
+                LongVector tmp = shift(move, shift).and(mask);
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                tmp = tmp.or(shift(tmp, shift).and(mask));
+                LongVector outflank = shift(tmp, shift).and(player);
+                flipped = flipped.or(tmp.blend(0, outflank.compare(VectorOperators.EQ, 0)));
+            }
+            opponent.lanewise(VectorOperators.XOR, flipped).intoArray(players, i);
+            player.or(move).or(flipped).intoArray(opponents, i);
+        }
+        for (; i < count; i++) {
+            long player = players[i];
+            long opponent = opponents[i];
+            long move = moves[i];
+            long flipped = move != 0 ? BitBoard.computeFlipped(player, opponent, Bits.indexOf(move)) : 0;
+            players[i] = opponent ^ flipped;
+            opponents[i] = player | move | flipped;
+        }
+    }
+
+    private static LongVector shift(LongVector bits, int shift) {
+        return shift > 0 ? bits.lanewise(VectorOperators.LSHL, shift) : bits.lanewise(VectorOperators.LSHR, -shift);
+    }
+
+    @Override
+    public String name() {
+        return VECTOR;
+    }
+}